@@ -0,0 +1,53 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingFilter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Получение первой страницы бронирований пользователя и владельца вещей для каждого условия фильтрации
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingServiceBenchmark extends ServerState {
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    public BookingFilter filter;
+
+    @Param("20")
+    public int pageSize;
+
+    private BookingService bookingService;
+    private int next;
+
+
+    @Override
+    protected void prepare() {
+        bookingService = bean(BookingService.class);
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> getAllUserBookings() {
+        return bookingService.getAllUserBookings(nextUserId(), filter, null, null, pageSize);
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> getAllItemBookings() {
+        return bookingService.getAllItemBookings(nextUserId(), filter, null, null, pageSize);
+    }
+
+
+    private Long nextUserId() {
+        next = (next + 1) % userIds.size();
+        return userIds.get(next);
+    }
+
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск вещей и получение всех вещей владельца.
+ * По умолчанию кэш результатов поиска отключён (searchCacheSize = 0), чтобы измерялся сам поиск
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark extends ServerState {
+
+    @Param({"index", "database"})
+    public String searchMode;
+
+    @Param("0")
+    public int searchCacheSize;
+
+    private ItemService itemService;
+    private int nextWord;
+    private int nextOwner;
+
+
+    @Override
+    protected Properties properties() {
+        Properties properties = super.properties();
+        properties.setProperty("shareit.search.mode", searchMode);
+        properties.setProperty("shareit.search.cache.max-size", String.valueOf(searchCacheSize));
+        return properties;
+    }
+
+    @Override
+    protected void prepare() {
+        itemService = bean(ItemService.class);
+    }
+
+    @Benchmark
+    public List<ItemDto> findItems() {
+        nextWord = (nextWord + 1) % WORDS.length;
+        return itemService.findItems(WORDS[nextWord]);
+    }
+
+    @Benchmark
+    public List<ItemDto> getAllItems() {
+        nextOwner = (nextOwner + 1) % userIds.size();
+        return itemService.getAllItems(userIds.get(nextOwner));
+    }
+
+}
@@ -0,0 +1,115 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование вещей и бронирований в DTO и обратно без обращения к базе
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"0", "10"})
+    public int comments;
+
+    private final ItemMapper itemMapper = new ItemMapper();
+    private final BookingMapper bookingMapper = new BookingMapper();
+
+    private Item item;
+    private Booking lastBooking;
+    private Booking nextBooking;
+    private List<CommentDto> itemComments;
+    private BookingRequestDto bookingRequest;
+    private UserDto booker;
+    private ItemDto itemDto;
+
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        User owner = new User();
+        owner.setId(1L);
+        owner.setName("owner");
+        owner.setEmail("owner@benchmarks.shareit");
+
+        item = new Item();
+        item.setId(1L);
+        item.setName("drill");
+        item.setDescription("good drill for rent");
+        item.setAvailable(true);
+        item.setOwner(owner);
+
+        LocalDateTime now = LocalDateTime.now();
+        lastBooking = makeBooking(1L, now.minusDays(2), now.minusDays(1));
+        nextBooking = makeBooking(2L, now.plusDays(1), now.plusDays(2));
+
+        itemComments = new ArrayList<>();
+        for (int i = 0; i < comments; i++) {
+            CommentDto comment = new CommentDto();
+            comment.setId((long) i);
+            comment.setText("comment " + i);
+            comment.setAuthorName("author");
+            comment.setCommentedItem(item.getName());
+            comment.setCreated(now);
+            itemComments.add(comment);
+        }
+
+        bookingRequest = new BookingRequestDto();
+        bookingRequest.setItemId(item.getId());
+        bookingRequest.setStart(now.plusDays(3));
+        bookingRequest.setEnd(now.plusDays(4));
+
+        booker = new UserDto();
+        booker.setId(2L);
+        booker.setName("booker");
+        booker.setEmail("booker@benchmarks.shareit");
+
+        itemDto = itemMapper.itemToItemDto(item, lastBooking, nextBooking, itemComments, false);
+    }
+
+    @Benchmark
+    public ItemDto itemToItemDto() {
+        return itemMapper.itemToItemDto(item, lastBooking, nextBooking, itemComments, true);
+    }
+
+    @Benchmark
+    public Booking bookingRequestDtoToBooking() {
+        return bookingMapper.bookingRequestDtoToBooking(bookingRequest, item);
+    }
+
+    @Benchmark
+    public BookingResponseDto bookingToBookingResponseDto() {
+        return bookingMapper.bookingToBookingResponseDto(lastBooking, booker, itemDto);
+    }
+
+
+    private Booking makeBooking(Long id, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(BookingStatus.APPROVED);
+        booking.setRequestedItem(item);
+        return booking;
+    }
+
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchIndex;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Сервер без веб-слоя поверх H2 в памяти, заполненной синтетическими данными.
+ * Размер данных задаётся параметрами users, itemsPerUser и bookingsPerUser, данные детерминированы
+ * (генератор случайных чисел инициализируется фиксированным значением)
+ */
+@State(Scope.Benchmark)
+public class ServerState {
+
+    static final String[] WORDS = {"drill", "tent", "bike", "ladder", "camera", "saw", "kayak", "tripod",
+            "projector", "grill", "hammer", "drone", "guitar", "scooter", "sleeping", "bag"};
+
+    private static final long SEED = 42;
+
+    @Param("100")
+    public int users;
+
+    @Param("10")
+    public int itemsPerUser;
+
+    @Param("50")
+    public int bookingsPerUser;
+
+    protected ConfigurableApplicationContext context;
+    protected List<Long> userIds;
+
+
+    @Setup(Level.Trial)
+    public void startServer() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties())
+                .run();
+        seed(new Random(SEED));
+        context.getBeanProvider(ItemSearchIndex.class).ifAvailable(ItemSearchIndex::rebuild);
+        prepare();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        context.close();
+    }
+
+    protected Properties properties() {
+        Properties properties = new Properties();
+        properties.setProperty("spring.datasource.url", "jdbc:h2:mem:shareit-benchmarks;DB_CLOSE_DELAY=-1");
+        properties.setProperty("logging.level.root", "WARN");
+        properties.setProperty("logging.level.ru.practicum.shareit", "WARN");
+        properties.setProperty("logging.level.org.springframework.transaction.interceptor", "WARN");
+        properties.setProperty("logging.level.org.springframework.orm.jpa.JpaTransactionManager", "WARN");
+        return properties;
+    }
+
+    /**
+     * Подготовка конкретного бенчмарка после запуска сервера и заполнения базы
+     */
+    protected void prepare() {
+    }
+
+    protected <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+
+    private void seed(Random random) {
+        UserRepository userRepository = bean(UserRepository.class);
+        ItemRepository itemRepository = bean(ItemRepository.class);
+        BookingRepository bookingRepository = bean(BookingRepository.class);
+
+        List<User> savedUsers = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setName("user" + i);
+            user.setEmail("user" + i + "@benchmarks.shareit");
+            savedUsers.add(user);
+        }
+        savedUsers = userRepository.saveAll(savedUsers);
+        userIds = savedUsers.stream().map(User::getId).toList();
+
+        List<Item> items = new ArrayList<>();
+        for (User owner : savedUsers) {
+            for (int i = 0; i < itemsPerUser; i++) {
+                Item item = new Item();
+                String word = WORDS[random.nextInt(WORDS.length)];
+                item.setName(word + " " + WORDS[random.nextInt(WORDS.length)]);
+                item.setDescription("good " + word + " for rent, item " + i + " of " + owner.getName());
+                item.setAvailable(random.nextInt(10) != 0);
+                item.setOwner(owner);
+                items.add(item);
+            }
+        }
+        items = itemRepository.saveAll(items);
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingStatus[] statuses = BookingStatus.values();
+        List<Booking> bookings = new ArrayList<>();
+        for (User booker : savedUsers) {
+            for (int i = 0; i < bookingsPerUser; i++) {
+                Booking booking = new Booking();
+                LocalDateTime start = now.plusHours(random.nextInt(24 * 365 * 2) - 24 * 365);
+                booking.setStart(start);
+                booking.setEnd(start.plusHours(1 + random.nextInt(24 * 14)));
+                booking.setStatus(statuses[random.nextInt(statuses.length)]);
+                booking.setRequestedUser(booker);
+                booking.setRequestedItem(items.get(random.nextInt(items.size())));
+                bookings.add(booking);
+            }
+        }
+        bookingRepository.saveAll(bookings);
+    }
+
+}
@@ -1,62 +1,67 @@
 package ru.practicum.shareit.booking;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerClientFactory;
 
 @Service
 public class BookingClient extends BaseClient {
 
     private static final String API_PREFIX = "/bookings";
 
-    @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
-        );
+    public BookingClient(ServerClientFactory clientFactory) {
+        super(clientFactory, API_PREFIX);
     }
 
 
-    public ResponseEntity<Object> getAllUserBookings(long userId, BookingFilter state) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name()
-        );
-        return get("?state={state}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getAllUserBookings(long userId, BookingFilter state,
+                                                           LocalDateTime afterStart, Long afterId, int size) {
+        Map<String, Object> parameters = pageParameters(state, afterStart, afterId, size);
+        return get(withQuery("", parameters), userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllItemBookings(long ownerId, BookingFilter state) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name()
-        );
-        return get("/owner?state={state}", ownerId, parameters);
+    public Mono<ResponseEntity<Object>> getAllItemBookings(long ownerId, BookingFilter state,
+                                                           LocalDateTime afterStart, Long afterId, int size) {
+        Map<String, Object> parameters = pageParameters(state, afterStart, afterId, size);
+        return get(withQuery("/owner", parameters), ownerId, parameters);
     }
 
-    public ResponseEntity<Object> getBookingById(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBookingById(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> addBooking(long userId, BookItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> addBooking(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> approveBooking(Long userId, Long bookingId, boolean approved) {
+    public Mono<ResponseEntity<Object>> approveBooking(Long userId, Long bookingId, boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
         return patch("/" + bookingId + "?approved={approved}", userId, parameters);
     }
 
-}
\ No newline at end of file
+
+    private Map<String, Object> pageParameters(BookingFilter state, LocalDateTime afterStart, Long afterId, int size) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("existFilter", state.name());
+        parameters.put("size", size);
+        if (afterStart != null) {
+            parameters.put("afterStart", afterStart);
+        }
+        if (afterId != null) {
+            parameters.put("afterId", afterId);
+        }
+        return parameters;
+    }
+
+}
@@ -1,13 +1,20 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingFilter;
+import ru.practicum.shareit.client.BaseClient;
+
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping(path = "/bookings")
@@ -16,6 +23,8 @@ import ru.practicum.shareit.booking.dto.BookingFilter;
 @Validated
 public class BookingController {
 
+    private static final String DEFAULT_PAGE_SIZE = "100";
+
     private final BookingClient bookingClient;
 
 
@@ -23,34 +32,53 @@ public class BookingController {
      * Получение списка всех бронирований текущего пользователя.
      * Бронирования возвращаются отсортированными по дате от более новых к более старым
      *
+     * Для получения следующей страницы передаются дата начала и идентификатор последнего бронирования
+     * предыдущей страницы
+     *
      * @param requestedUserId идентификатор пользователя, список бронирований которого необходимо получить
      * @param state           фильтрация возвращаемых бронирований по их состоянию
      *                        (по умолчанию - возвращаются все бронирования текущего пользователя)
+     * @param afterStart      дата начала последнего бронирования предыдущей страницы
+     * @param afterId         идентификатор последнего бронирования предыдущей страницы
+     * @param size            максимальное количество бронирований на странице
      */
     @GetMapping
-    public ResponseEntity<Object> getAllUserBookings(@RequestHeader("X-Sharer-User-Id") long requestedUserId,
-                                                     @RequestParam(name = "state", defaultValue = "all") String state) {
+    public Mono<ResponseEntity<Object>> getAllUserBookings(@RequestHeader("X-Sharer-User-Id") long requestedUserId,
+                                                           @RequestParam(name = "state", defaultValue = "all") String state,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+                                                           @RequestParam(required = false) Long afterId,
+                                                           @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Positive @Max(BaseClient.MAX_PAGE_SIZE) int size) {
         BookingFilter existState = BookingFilter.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
-        log.info("Get booking with state {}, userId={}", existState, requestedUserId);
-        return bookingClient.getAllUserBookings(requestedUserId, existState);
+        log.info("Get booking with state {}, userId={}, after start={} id={}, size={}", existState, requestedUserId,
+                afterStart, afterId, size);
+        return bookingClient.getAllUserBookings(requestedUserId, existState, afterStart, afterId, size);
     }
 
     /**
      * Получение списка бронирований для всех вещей текущего пользователя-владельца.
      * Этот запрос имеет смысл для владельца хотя бы одной вещи.
      *
-     * @param ownerId идентификатор пользователя-владельца, список бронирований для вещей которого необходимо получить
-     * @param state   фильтрация возвращаемых бронирований по их состоянию (по умолчанию - возвращаются все бронирования
-     *                вещей текущего пользователя-владельца
+     * Бронирования возвращаются постранично, так же как и в {@link #getAllUserBookings}
+     *
+     * @param ownerId    идентификатор пользователя-владельца, список бронирований для вещей которого необходимо получить
+     * @param state      фильтрация возвращаемых бронирований по их состоянию (по умолчанию - возвращаются все бронирования
+     *                   вещей текущего пользователя-владельца
+     * @param afterStart дата начала последнего бронирования предыдущей страницы
+     * @param afterId    идентификатор последнего бронирования предыдущей страницы
+     * @param size       максимальное количество бронирований на странице
      */
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllItemBookings(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                                     @RequestParam(name = "state", defaultValue = "all") String state) {
+    public Mono<ResponseEntity<Object>> getAllItemBookings(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                                           @RequestParam(name = "state", defaultValue = "all") String state,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+                                                           @RequestParam(required = false) Long afterId,
+                                                           @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Positive @Max(BaseClient.MAX_PAGE_SIZE) int size) {
         BookingFilter existState = BookingFilter.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
-        log.info("Get booking with state {}, userId={}", existState, ownerId);
-        return bookingClient.getAllItemBookings(ownerId, existState);
+        log.info("Get booking with state {}, userId={}, after start={} id={}, size={}", existState, ownerId,
+                afterStart, afterId, size);
+        return bookingClient.getAllItemBookings(ownerId, existState, afterStart, afterId, size);
     }
 
     /**
@@ -61,8 +89,8 @@ public class BookingController {
      * @param bookingId идентификатор бронирования, информацию о котором небходимо получить
      */
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBookingById(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                 @PathVariable Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBookingById(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                       @PathVariable Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBookingById(userId, bookingId);
     }
@@ -77,8 +105,8 @@ public class BookingController {
      * @return DTO добавленного запроса на бронирование
      */
     @PostMapping
-    public ResponseEntity<Object> addBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @RequestBody BookItemRequestDto newBooking) {
+    public Mono<ResponseEntity<Object>> addBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @RequestBody BookItemRequestDto newBooking) {
         log.info("Creating booking {}, userId={}", newBooking, userId);
         return bookingClient.addBooking(userId, newBooking);
     }
@@ -93,9 +121,9 @@ public class BookingController {
      * @return DTO запроса на бронирование с учетом его обновлённого состояния
      */
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                 @PathVariable Long bookingId,
-                                                 @RequestParam boolean approved) {
+    public Mono<ResponseEntity<Object>> approveBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                       @PathVariable Long bookingId,
+                                                       @RequestParam boolean approved) {
         log.info("Approving booking {}, userId={}", bookingId, userId);
         return bookingClient.approveBooking(userId, bookingId, approved);
     }
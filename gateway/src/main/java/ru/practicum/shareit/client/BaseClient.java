@@ -1,91 +1,260 @@
 package ru.practicum.shareit.client;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public class BaseClient {
 
+    /**
+     * Наибольший размер страницы при постраничном выводе; совпадает с ограничением сервера
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
     protected final RestTemplate rest;
+    protected final WebClient webClient;
+    private final RestTemplate streamingRest;
+    private final WebClient streamingWebClient;
+    private final Class<?> responseBodyType;
+    private final ServerResponseCache responseCache;
+    private final RequestCoalescer requestCoalescer;
+    private final ServerRouteGuard routeGuard;
+    private final UserRateLimiter rateLimiter;
+    private final String apiPrefix;
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    /**
+     * Тело успешного ответа сервера в режиме передачи без разбора (shareit-gateway.passthrough=true, по умолчанию)
+     * передаётся клиенту шлюза как массив байт вместе с кодом ответа и типом содержимого: JSON не разбирается
+     * шлюзом и не кодируется заново. С shareit-gateway.passthrough=false тело разбирается в Object
+     *
+     * @param clientFactory фабрика клиентов сервера
+     * @param apiPrefix     общий префикс пути запросов клиента
+     */
+    public BaseClient(ServerClientFactory clientFactory, String apiPrefix) {
+        this.rest = clientFactory.isNonBlocking() ? null : clientFactory.restTemplate(apiPrefix);
+        this.webClient = clientFactory.isNonBlocking() ? clientFactory.webClient(apiPrefix) : null;
+        this.streamingRest = clientFactory.isNonBlocking() ? null : clientFactory.streamingRestTemplate(apiPrefix);
+        this.streamingWebClient = clientFactory.isNonBlocking() ? clientFactory.streamingWebClient(apiPrefix) : null;
+        this.responseBodyType = clientFactory.isPassthrough() ? byte[].class : Object.class;
+        this.responseCache = clientFactory.responseCache();
+        this.requestCoalescer = clientFactory.requestCoalescer();
+        this.routeGuard = clientFactory.routeGuard();
+        this.rateLimiter = clientFactory.rateLimiter();
+        this.apiPrefix = apiPrefix;
     }
 
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected <T> ResponseEntity<Object> get(String path, Long userId, @Nullable T body) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, null, body);
+    protected <T> Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable T body) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, null, body, null);
+    }
+
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    protected Mono<ResponseEntity<Object>> get(String path, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.GET, path, null, parameters, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, null, parameters, null);
+    /**
+     * Запрос ресурса, который сервер помечает ETag. Если ответ сохранён в кэше, запрос отправляется
+     * с If-None-Match, и неизменившийся ресурс сервер не загружает и не передаёт повторно
+     *
+     * @param path путь ресурса
+     */
+    protected Mono<ResponseEntity<Object>> getRevalidated(String path) {
+        String key = apiPrefix + path;
+        ServerResponseCache.Entry cached = responseCache.get(key);
+        return makeAndSendRequest(HttpMethod.GET, path, null, null, null, cached != null ? cached.eTag() : null)
+                .map(response -> responseCache.update(key, cached, response));
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, null);
+    /**
+     * POST-запрос, тело которого передаётся серверу по мере получения от клиента шлюза, не накапливаясь в памяти.
+     * Ответа сервер ждут shareit-gateway.http-client.streaming-response-timeout вместо общего времени ожидания
+     *
+     * @param path   путь ресурса
+     * @param userId идентификатор пользователя
+     * @param body   тело запроса
+     */
+    protected Mono<ResponseEntity<Object>> postStream(String path, Long userId, Flux<DataBuffer> body) {
+        return rateLimiter.execute(HttpMethod.POST, apiPrefix + path, userId, () -> {
+            HttpHeaders headers = defaultHeaders(userId);
+            Mono<ResponseEntity<Object>> request = streamingWebClient != null
+                    ? retrieve(streamingWebClient.post()
+                            .uri(path)
+                            .headers(h -> h.addAll(headers))
+                            .body(body, DataBuffer.class))
+                    : Mono.fromCallable(() -> exchangeStreamBlocking(path, headers, body));
+            return routeGuard.protect(HttpMethod.POST, apiPrefix + path, request);
+        });
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, null, null, body);
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, null, null, body, null);
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body, null);
+    }
+
+    protected Mono<ResponseEntity<Object>> delete(String path) {
+        return makeAndSendRequest(HttpMethod.DELETE, path, null, null, null, null);
+    }
+
+    /**
+     * Дополнить путь шаблоном строки запроса вида ?name={name}&... по всем переданным параметрам
+     *
+     * @param path       путь ресурса
+     * @param parameters параметры запроса; параметры без значения в словарь не добавляются
+     */
+    protected static String withQuery(String path, Map<String, Object> parameters) {
+        if (parameters.isEmpty()) {
+            return path;
+        }
+        return path + "?" + parameters.keySet().stream()
+                .map(name -> name + "={" + name + "}")
+                .collect(Collectors.joining("&"));
+    }
+
+    /**
+     * Запрос к серверу выполняется при подписке на результат.
+     * Блокирующий запрос выполняется в потоке, подписавшемся на результат (потоке обработки запроса к шлюзу),
+     * неблокирующий — не занимает поток на время ожидания ответа сервера.
+     * Запрос пользователя, исчерпавшего квоту маршрута, на сервер не отправляется и получает ответ 429.
+     * Одинаковые одновременные GET-запросы (тот же путь, параметры, пользователь и If-None-Match) объединяются
+     * в один запрос к серверу. Каждый запрос к серверу ограничивается bulkhead и circuit breaker своего маршрута
+     */
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body,
+                                                                @Nullable String ifNoneMatch) {
+        return rateLimiter.execute(method, apiPrefix + path, userId, () -> {
+            if (HttpMethod.GET.equals(method) && body == null) {
+                String key = RequestCoalescer.keyOf(apiPrefix + path, parameters, userId, ifNoneMatch);
+                return requestCoalescer.execute(key, () -> sendRequest(method, path, userId, parameters, null, ifNoneMatch));
+            }
+            return sendRequest(method, path, userId, parameters, body, ifNoneMatch);
+        });
     }
 
-    protected ResponseEntity<Object> delete(String path) {
-        return makeAndSendRequest(HttpMethod.DELETE, path, null, null, null);
+    private <T> Mono<ResponseEntity<Object>> sendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body,
+                                                         @Nullable String ifNoneMatch) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        Mono<ResponseEntity<Object>> request = webClient != null
+                ? exchange(method, path, headers, parameters, body)
+                : Mono.fromCallable(() -> exchangeBlocking(method, path, headers, parameters, body));
+        return routeGuard.protect(method, apiPrefix + path, request);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
-        ResponseEntity<Object> shareitServerResponse;
+    private <T> ResponseEntity<Object> exchangeBlocking(HttpMethod method, String path, HttpHeaders headers, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
+        ResponseEntity<?> shareitServerResponse;
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, responseBodyType, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, responseBodyType);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return prepareGatewayResponse(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return prepareGatewayResponse(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
+    }
+
+    /**
+     * Тело записывается в соединение с сервером частями по мере чтения, без промежуточного буфера запроса
+     */
+    private ResponseEntity<Object> exchangeStreamBlocking(String path, HttpHeaders headers, Flux<DataBuffer> body) {
+        ResponseEntity<?> shareitServerResponse;
+        try {
+            shareitServerResponse = streamingRest.execute(path, HttpMethod.POST, request -> {
+                request.getHeaders().addAll(headers);
+                if (request instanceof StreamingHttpOutputMessage streamingRequest) {
+                    streamingRequest.setBody(outputStream -> writeBody(body, outputStream));
+                } else {
+                    writeBody(body, request.getBody());
+                }
+            }, streamingRest.responseEntityExtractor(responseBodyType));
+        } catch (HttpStatusCodeException e) {
+            return prepareGatewayResponse(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
+        }
+        return prepareGatewayResponse(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
+    }
+
+    private static void writeBody(Flux<DataBuffer> body, OutputStream outputStream) {
+        DataBufferUtils.write(body, outputStream)
+                .doOnNext(DataBufferUtils::release)
+                .then()
+                .block();
+    }
+
+    /**
+     * Ответ сервера с ошибкой передаётся клиенту шлюза без разбора тела, как и при блокирующем запросе
+     */
+    private <T> Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders requestHeaders, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(requestHeaders));
+        return retrieve(body != null ? request.bodyValue(body) : request);
+    }
+
+    private Mono<ResponseEntity<Object>> retrieve(WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(response -> {
+            HttpStatusCode status = response.statusCode();
+            HttpHeaders headers = response.headers().asHttpHeaders();
+            return response.bodyToMono(status.is2xxSuccessful() ? responseBodyType : byte[].class)
+                    .map(responseBody -> prepareGatewayResponse(status, headers, responseBody))
+                    .defaultIfEmpty(prepareGatewayResponse(status, headers, null));
+        });
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -98,15 +267,20 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    /**
+     * Из заголовков ответа сервера передаются только тип содержимого и ETag (для кэша ответов): заголовки соединения
+     * с сервером (Transfer-Encoding, Keep-Alive, Connection) и длина тела к соединению с клиентом шлюза не относятся
+     */
+    private static ResponseEntity<Object> prepareGatewayResponse(HttpStatusCode status, @Nullable HttpHeaders serverHeaders,
+                                                                 @Nullable Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null && serverHeaders.getContentType() != null) {
+            headers.setContentType(serverHeaders.getContentType());
         }
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (serverHeaders != null && serverHeaders.getETag() != null) {
+            headers.setETag(serverHeaders.getETag());
         }
-        return responseBuilder.build();
+        return new ResponseEntity<>(body, headers, status);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Передача адреса клиента в {@link UserRateLimiter} на реактивном стеке.
+ * Запрос на реактивном стеке не привязан к потоку, поэтому адрес кладётся в контекст Reactor под ключом
+ * {@link UserRateLimiter#CLIENT_ADDRESS_CONTEXT_KEY}; на стеке Spring MVC ограничитель берёт его из текущего запроса
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ClientAddressWebFilter implements WebFilter {
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null) {
+            return chain.filter(exchange);
+        }
+        String address = remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : remoteAddress.getHostString();
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(UserRateLimiter.CLIENT_ADDRESS_CONTEXT_KEY, address));
+    }
+
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Настройки пула соединений шлюза с сервером ShareIt, общего для всех клиентов
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "shareit-gateway.http-client")
+public class HttpClientProperties {
+
+    /**
+     * Наибольшее число соединений с сервером
+     */
+    private int maxConnections = 200;
+
+    /**
+     * Наибольшее число соединений с одним адресом сервера
+     */
+    private int maxConnectionsPerRoute = 200;
+
+    /**
+     * Время ожидания установки соединения
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Время ожидания ответа сервера
+     */
+    private Duration responseTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Время ожидания ответа сервера на запросы с потоковым телом (импорт каталога вещей): сервер отвечает
+     * только после обработки всего тела, поэтому общего времени ожидания ответа для них мало
+     */
+    private Duration streamingResponseTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Время ожидания свободного соединения из пула
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Время, через которое простаивающее соединение закрывается. Должно быть меньше времени, через которое
+     * простаивающее соединение закрывает сервер (у Tomcat по умолчанию 20 секунд)
+     */
+    private Duration idleTimeout = Duration.ofSeconds(15);
+
+    /**
+     * Время повторного использования соединения, если сервер не указал его в заголовке Keep-Alive
+     */
+    private Duration keepAlive = Duration.ofSeconds(15);
+
+    /**
+     * Наибольшее число запросов, ожидающих свободного соединения (только для неблокирующего клиента)
+     */
+    private int maxPendingAcquires = 50000;
+
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.client;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Квоты запросов пользователей к серверу ShareIt через шлюз
+ */
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "shareit-gateway.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Ограничивать ли число запросов пользователей
+     */
+    private boolean enabled = true;
+
+    /**
+     * Квота пользователя для маршрута, для которого не задана отдельная квота
+     */
+    @Valid
+    private Quota defaults = new Quota(50, 20);
+
+    /**
+     * Отдельные квоты маршрутов (например, get-bookings или get-bookings-owner)
+     */
+    @Valid
+    private Map<String, Quota> routes = new HashMap<>();
+
+    /**
+     * Наибольшее число хранимых bucket (пар пользователь или адрес клиента — маршрут). При превышении
+     * вытесняются давно не использованные, и их клиенты получают полную квоту заново
+     */
+    @Positive
+    private long maxBuckets = 100000;
+
+    /**
+     * Квота запросов одного пользователя (или адреса клиента для запросов без пользователя) к одному маршруту
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Quota {
+
+        /**
+         * Наибольшее число запросов, которое пользователь может отправить подряд без пауз
+         */
+        @Positive
+        private int capacity;
+
+        /**
+         * Число запросов в секунду, на которое пополняется квота
+         */
+        @Positive
+        private double refillPerSecond;
+
+    }
+
+}
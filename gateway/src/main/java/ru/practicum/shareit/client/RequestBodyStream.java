@@ -0,0 +1,13 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+/**
+ * Тело запроса, передаваемое серверу по мере получения, без разбора и накопления в памяти шлюза.
+ * Аргумент контроллера этого типа заполняется обработчиками из {@link RequestBodyStreamConfig}
+ *
+ * @param body части тела запроса
+ */
+public record RequestBodyStream(Flux<DataBuffer> body) {
+}
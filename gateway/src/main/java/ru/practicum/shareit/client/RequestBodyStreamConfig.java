@@ -0,0 +1,107 @@
+package ru.practicum.shareit.client;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.reactive.BindingContext;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Заполнение аргументов контроллеров типа {@link RequestBodyStream}.
+ * На реактивном стеке аргумент получает поток частей тела из WebFlux, на стеке Spring MVC — поток частей,
+ * прочитанных из входного потока запроса. В режиме web-client входной поток читается
+ * в Schedulers.boundedElastic, чтобы блокирующее чтение не занимало поток Reactor Netty.
+ * Обработчики регистрируются стандартными WebMvcConfigurer и WebFluxConfigurer
+ */
+@Configuration
+public class RequestBodyStreamConfig {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletConfig implements WebMvcConfigurer {
+
+        private final boolean nonBlocking;
+
+        ServletConfig(@Value("${shareit-gateway.client:rest-template}") String clientType) {
+            this.nonBlocking = "web-client".equals(clientType);
+        }
+
+        @Override
+        public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+            resolvers.add(new ServletBodyStreamArgumentResolver(nonBlocking));
+        }
+
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class ReactiveConfig implements WebFluxConfigurer {
+
+        @Override
+        public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+            configurer.addCustomResolver(new ReactiveBodyStreamArgumentResolver());
+        }
+
+    }
+
+
+    static class ServletBodyStreamArgumentResolver implements HandlerMethodArgumentResolver {
+
+        private final boolean nonBlocking;
+
+        ServletBodyStreamArgumentResolver(boolean nonBlocking) {
+            this.nonBlocking = nonBlocking;
+        }
+
+        @Override
+        public boolean supportsParameter(MethodParameter parameter) {
+            return RequestBodyStream.class.equals(parameter.getParameterType());
+        }
+
+        @Override
+        public RequestBodyStream resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                                 NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+            HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+            Flux<DataBuffer> body = DataBufferUtils.readInputStream(request::getInputStream,
+                    DefaultDataBufferFactory.sharedInstance, BUFFER_SIZE);
+            return new RequestBodyStream(nonBlocking ? body.subscribeOn(Schedulers.boundedElastic()) : body);
+        }
+
+    }
+
+    static class ReactiveBodyStreamArgumentResolver
+            implements org.springframework.web.reactive.result.method.HandlerMethodArgumentResolver {
+
+        @Override
+        public boolean supportsParameter(MethodParameter parameter) {
+            return RequestBodyStream.class.equals(parameter.getParameterType());
+        }
+
+        @Override
+        public Mono<Object> resolveArgument(MethodParameter parameter, BindingContext bindingContext,
+                                            ServerWebExchange exchange) {
+            return Mono.just(new RequestBodyStream(exchange.getRequest().getBody()));
+        }
+
+    }
+
+}
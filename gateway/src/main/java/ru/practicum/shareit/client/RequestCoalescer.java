@@ -0,0 +1,104 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одинаковых одновременных запросов к серверу (single-flight).
+ * Пока запрос с некоторым ключом выполняется, запросы с тем же ключом не отправляются на сервер,
+ * а получают результат выполняющегося запроса. После ответа сервера ключ освобождается, и следующий запрос
+ * снова отправляется на сервер, поэтому объединяются только запросы, пришедшие за время ожидания ответа.
+ * Число отправленных и объединённых запросов публикуется в actuator как метрика
+ * shareit.gateway.coalescing.requests с тегом result=upstream или result=coalesced.
+ * Включается свойством shareit-gateway.coalescing.enabled
+ */
+@Component
+public class RequestCoalescer {
+
+    private final boolean enabled;
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Counter upstreamRequests;
+    private final Counter coalescedRequests;
+
+    /**
+     * Выполняющийся запрос. Результат запоминается и передаётся всем подписавшимся на него,
+     * после завершения запрос удаляет себя из выполняющихся
+     */
+    private final class Flight {
+
+        private final Mono<ResponseEntity<Object>> response;
+
+        private Flight(String key, Supplier<Mono<ResponseEntity<Object>>> request) {
+            this.response = Mono.defer(request)
+                    .doFinally(signal -> inFlight.remove(key, this))
+                    .cache();
+        }
+
+    }
+
+    public RequestCoalescer(@Value("${shareit-gateway.coalescing.enabled:true}") boolean enabled,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.upstreamRequests = Counter.builder("shareit.gateway.coalescing.requests")
+                .description("Requests to ShareIt server eligible for coalescing")
+                .tag("result", "upstream")
+                .register(meterRegistry);
+        this.coalescedRequests = Counter.builder("shareit.gateway.coalescing.requests")
+                .description("Requests to ShareIt server eligible for coalescing")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.coalescing.in.flight", inFlight, Map::size)
+                .description("Distinct coalescable requests awaiting ShareIt server response")
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Ключ GET-запроса к серверу: ответ зависит от пути, параметров, пользователя и If-None-Match
+     * (на запрос с If-None-Match сервер может ответить 304 без тела)
+     *
+     * @param path        путь запроса вместе с общим префиксом клиента
+     * @param parameters  параметры запроса
+     * @param userId      идентификатор пользователя
+     * @param ifNoneMatch значение заголовка If-None-Match
+     */
+    public static String keyOf(String path, @Nullable Map<String, Object> parameters, @Nullable Long userId,
+                               @Nullable String ifNoneMatch) {
+        return path + (parameters != null ? new TreeMap<>(parameters) : "") + "|" + userId + "|" + ifNoneMatch;
+    }
+
+    /**
+     * Выполнить запрос или присоединиться к выполняющемуся запросу с тем же ключом.
+     * Запрос выполняется при подписке на результат
+     *
+     * @param key     ключ запроса; запросы с равными ключами должны возвращать одинаковый ответ
+     * @param request отправка запроса на сервер
+     */
+    public Mono<ResponseEntity<Object>> execute(String key, Supplier<Mono<ResponseEntity<Object>>> request) {
+        if (!enabled) {
+            return Mono.defer(request);
+        }
+        return Mono.defer(() -> {
+            Flight flight = new Flight(key, request);
+            Flight existing = inFlight.putIfAbsent(key, flight);
+            if (existing != null) {
+                coalescedRequests.increment();
+                return existing.response;
+            }
+            upstreamRequests.increment();
+            return flight.response;
+        });
+    }
+
+}
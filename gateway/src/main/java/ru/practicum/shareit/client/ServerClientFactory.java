@@ -0,0 +1,253 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Создание клиентов для обращения к серверу ShareIt.
+ * Способ обращения задаётся свойством shareit-gateway.client:
+ * rest-template (по умолчанию) — блокирующий RestTemplate, поток обработки запроса ждёт ответа сервера;
+ * web-client — неблокирующий WebClient на Reactor Netty, поток освобождается на время ожидания ответа.
+ * Вместе с web-client шлюз можно запустить на реактивном стеке (spring.main.web-application-type=reactive),
+ * тогда и входящие запросы обрабатываются без выделения потока на каждый запрос.
+ * Клиенты в обоих режимах возвращают Mono, и контроллеры отдают его Spring MVC или WebFlux без изменений:
+ * Spring MVC обрабатывает Mono стандартной асинхронной обработкой запроса, в режиме rest-template
+ * запрос к серверу при этом выполняется в потоке обработки запроса при подписке на Mono.
+ *
+ * Все клиенты используют один пул соединений с сервером, настраиваемый свойствами shareit-gateway.http-client.*.
+ * Занятость пула публикуется в actuator: метрики httpcomponents.httpclient.pool.* для rest-template
+ * и reactor.netty.connection.provider.* для web-client
+ */
+@Component
+@Slf4j
+public class ServerClientFactory {
+
+    private static final String POOL_NAME = "shareit-server";
+
+    private final String serverUrl;
+    private final boolean nonBlocking;
+    private final boolean passthrough;
+    private final RestTemplateBuilder restTemplateBuilder;
+    private final ClientHttpRequestFactory requestFactory;
+    private final ClientHttpRequestFactory streamingRequestFactory;
+    private final CloseableHttpClient blockingHttpClient;
+    private final WebClient.Builder webClientBuilder;
+    private final WebClient.Builder streamingWebClientBuilder;
+    private final ConnectionProvider connectionProvider;
+    private final ServerResponseCache responseCache;
+    private final RequestCoalescer requestCoalescer;
+    private final ServerRouteGuard routeGuard;
+    private final UserRateLimiter rateLimiter;
+
+    public ServerClientFactory(@Value("${shareit-server.url}") String serverUrl,
+                               @Value("${shareit-gateway.client:rest-template}") String clientType,
+                               @Value("${shareit-gateway.passthrough:true}") boolean passthrough,
+                               HttpClientProperties properties,
+                               MeterRegistry meterRegistry,
+                               ServerResponseCache responseCache,
+                               RequestCoalescer requestCoalescer,
+                               ServerRouteGuard routeGuard,
+                               UserRateLimiter rateLimiter,
+                               ObjectProvider<RestTemplateBuilder> restTemplateBuilder,
+                               WebClient.Builder webClientBuilder) {
+        this.serverUrl = serverUrl;
+        this.passthrough = passthrough;
+        this.responseCache = responseCache;
+        this.requestCoalescer = requestCoalescer;
+        this.routeGuard = routeGuard;
+        this.rateLimiter = rateLimiter;
+        switch (clientType) {
+            case "rest-template":
+                nonBlocking = false;
+                this.restTemplateBuilder = restTemplateBuilder.getIfAvailable();
+                if (this.restTemplateBuilder == null) {
+                    throw new IllegalStateException("Blocking rest-template client requires servlet web application, "
+                            + "use shareit-gateway.client=web-client with reactive web application");
+                }
+                blockingHttpClient = createBlockingHttpClient(properties, meterRegistry);
+                requestFactory = new HttpComponentsClientHttpRequestFactory(blockingHttpClient);
+                streamingRequestFactory = createStreamingRequestFactory(blockingHttpClient, properties);
+                this.webClientBuilder = null;
+                streamingWebClientBuilder = null;
+                connectionProvider = null;
+                break;
+            case "web-client":
+                nonBlocking = true;
+                this.restTemplateBuilder = null;
+                blockingHttpClient = null;
+                requestFactory = null;
+                streamingRequestFactory = null;
+                connectionProvider = createConnectionProvider(properties);
+                HttpClient httpClient = HttpClient.create(connectionProvider)
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                        .responseTimeout(properties.getResponseTimeout());
+                this.webClientBuilder = webClientBuilder.clone()
+                        .clientConnector(new ReactorClientHttpConnector(httpClient));
+                streamingWebClientBuilder = webClientBuilder.clone()
+                        .clientConnector(new ReactorClientHttpConnector(
+                                httpClient.responseTimeout(properties.getStreamingResponseTimeout())));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shareit-gateway.client: " + clientType);
+        }
+        log.info("Requests to ShareIt server are sent with {}, response body passthrough: {}, connection pool: {}",
+                clientType, passthrough, properties);
+    }
+
+
+    public boolean isNonBlocking() {
+        return nonBlocking;
+    }
+
+    public boolean isPassthrough() {
+        return passthrough;
+    }
+
+    public ServerResponseCache responseCache() {
+        return responseCache;
+    }
+
+    public RequestCoalescer requestCoalescer() {
+        return requestCoalescer;
+    }
+
+    public ServerRouteGuard routeGuard() {
+        return routeGuard;
+    }
+
+    public UserRateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    public RestTemplate restTemplate(String apiPrefix) {
+        return restTemplateBuilder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + apiPrefix))
+                .requestFactory(() -> requestFactory)
+                .build();
+    }
+
+    public WebClient webClient(String apiPrefix) {
+        return webClientBuilder.clone()
+                .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + apiPrefix))
+                .build();
+    }
+
+    /**
+     * Клиент для запросов с потоковым телом: использует тот же пул соединений, но ждёт ответа
+     * shareit-gateway.http-client.streaming-response-timeout
+     */
+    public RestTemplate streamingRestTemplate(String apiPrefix) {
+        return restTemplateBuilder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + apiPrefix))
+                .requestFactory(() -> streamingRequestFactory)
+                .build();
+    }
+
+    /**
+     * Клиент для запросов с потоковым телом, см. {@link #streamingRestTemplate(String)}
+     */
+    public WebClient streamingWebClient(String apiPrefix) {
+        return streamingWebClientBuilder.clone()
+                .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + apiPrefix))
+                .build();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (blockingHttpClient != null) {
+            blockingHttpClient.close(CloseMode.GRACEFUL);
+        }
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+    }
+
+
+    /**
+     * Если сервер не указал время жизни соединения в заголовке Keep-Alive, соединение используется повторно
+     * в течение keep-alive. Простаивающие соединения закрываются фоновым потоком через idle-timeout,
+     * а перед повторным использованием соединение, простоявшее больше секунды, проверяется
+     */
+    private CloseableHttpClient createBlockingHttpClient(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getResponseTimeout()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(1))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig(properties, properties.getResponseTimeout()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getIdleTimeout()))
+                .build();
+    }
+
+    /**
+     * Время ожидания ответа задаётся в RequestConfig запроса и заменяет тайм-аут сокета из настроек пула
+     * на время этого запроса
+     */
+    private ClientHttpRequestFactory createStreamingRequestFactory(CloseableHttpClient httpClient,
+                                                                   HttpClientProperties properties) {
+        RequestConfig requestConfig = requestConfig(properties, properties.getStreamingResponseTimeout());
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        factory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(requestConfig);
+            return context;
+        });
+        return factory;
+    }
+
+    private static RequestConfig requestConfig(HttpClientProperties properties, Duration responseTimeout) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(responseTimeout))
+                .setConnectionKeepAlive(TimeValue.of(properties.getKeepAlive()))
+                .build();
+    }
+
+    private ConnectionProvider createConnectionProvider(HttpClientProperties properties) {
+        return ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getMaxPendingAcquires())
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getIdleTimeout())
+                .maxLifeTime(properties.getKeepAlive())
+                .evictInBackground(properties.getIdleTimeout())
+                .metrics(true)
+                .build();
+    }
+
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кэш ответов сервера на запросы ресурсов, которые сервер помечает ETag.
+ * Закэшированный ответ не отдаётся без обращения к серверу: запрос отправляется с If-None-Match, и если ресурс
+ * не изменился, сервер отвечает 304 без тела, а клиенту шлюза возвращается сохранённое тело.
+ * Ключ — путь ресурса: ответы на такие запросы не зависят от пользователя.
+ * Размер кэша ограничен свойством shareit-gateway.response-cache.max-size, статистика публикуется в actuator
+ * как метрики cache.* с тегом cache=serverResponses
+ */
+@Component
+public class ServerResponseCache {
+
+    private final boolean enabled;
+    private final Cache<String, Entry> cache;
+
+    /**
+     * Сохранённый ответ сервера
+     *
+     * @param eTag        ETag ответа в кавычках, как его прислал сервер
+     * @param contentType тип содержимого
+     * @param body        тело ответа
+     */
+    public record Entry(String eTag, MediaType contentType, Object body) {
+    }
+
+    public ServerResponseCache(@Value("${shareit-gateway.response-cache.enabled:true}") boolean enabled,
+                               @Value("${shareit-gateway.response-cache.max-size:10000}") long maxSize,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "serverResponses");
+    }
+
+
+    @Nullable
+    public Entry get(String key) {
+        return enabled ? cache.getIfPresent(key) : null;
+    }
+
+    /**
+     * Обработать ответ сервера на запрос ресурса: 304 заменяется сохранённым ответом, успешный ответ с ETag
+     * сохраняется, после любого другого ответа сохранённый ответ удаляется. ETag клиенту шлюза не передаётся:
+     * шлюз не обрабатывает его запросы с If-None-Match
+     *
+     * @param key      путь ресурса
+     * @param cached   ответ, ETag которого был отправлен в If-None-Match, или null
+     * @param response ответ сервера
+     */
+    public ResponseEntity<Object> update(String key, @Nullable Entry cached, ResponseEntity<Object> response) {
+        if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && cached != null) {
+            return toResponse(HttpStatus.OK, cached.contentType(), cached.body());
+        }
+        String eTag = response.getHeaders().getETag();
+        if (enabled && response.getStatusCode().is2xxSuccessful() && eTag != null && response.hasBody()) {
+            cache.put(key, new Entry(eTag, response.getHeaders().getContentType(), response.getBody()));
+        } else {
+            cache.invalidate(key);
+        }
+        if (eTag == null) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(response.getHeaders());
+        headers.remove(HttpHeaders.ETAG);
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+
+    private ResponseEntity<Object> toResponse(HttpStatusCode status, @Nullable MediaType contentType,
+                                              @Nullable Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (contentType != null) {
+            headers.setContentType(contentType);
+        }
+        return new ResponseEntity<>(body, headers, status);
+    }
+
+}
@@ -0,0 +1,151 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Изоляция маршрутов сервера друг от друга.
+ * Маршрут — метод и путь запроса без параметров, в котором идентификаторы заменены на id
+ * (например, get-bookings-owner или get-items-id). Для каждого маршрута создаются:
+ * bulkhead — ограничение числа одновременных запросов, чтобы медленный маршрут не занял все соединения и потоки;
+ * circuit breaker — при большой доле ошибок или медленных ответов запросы маршрута на время перестают
+ * отправляться на сервер. Ошибкой считаются исключения при обращении к серверу (отказ в соединении, тайм-аут)
+ * и ответы 502, 503 и 504. Отклонённые запросы сразу получают ответ 503.
+ * Если сервер недоступен (отказ в соединении, обрыв соединения), клиент получает ответ 502,
+ * если сервер не ответил вовремя — 504; тело ответа то же, что при отклонении запроса: {"error": описание}.
+ * Настройки задаются свойствами resilience4j.bulkhead.* и resilience4j.circuitbreaker.* (общие — в configs.default,
+ * для отдельного маршрута — в instances.&lt;маршрут&gt;), состояние публикуется в actuator
+ * (circuitbreakers, bulkheads, health и метрики resilience4j.*)
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ServerRouteGuard {
+
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    /**
+     * Ответ сервера, который считается ошибкой маршрута. Передаётся через circuit breaker как исключение
+     * и после него снова становится ответом
+     */
+    private static final class ServerFailureException extends RuntimeException {
+
+        private final transient ResponseEntity<Object> response;
+
+        private ServerFailureException(ResponseEntity<Object> response) {
+            super("ShareIt server responded " + response.getStatusCode(), null, false, false);
+            this.response = response;
+        }
+
+    }
+
+
+    /**
+     * Выполнить запрос к серверу под защитой bulkhead и circuit breaker маршрута
+     *
+     * @param method  метод запроса
+     * @param path    путь запроса вместе с общим префиксом клиента
+     * @param request отправка запроса на сервер
+     */
+    public Mono<ResponseEntity<Object>> protect(HttpMethod method, String path, Mono<ResponseEntity<Object>> request) {
+        String route = routeOf(method, path);
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(route);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(route);
+        return request
+                .flatMap(response -> isServerFailure(response)
+                        ? Mono.<ResponseEntity<Object>>error(new ServerFailureException(response))
+                        : Mono.just(response))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorResume(ServerFailureException.class, e -> Mono.just(e.response))
+                .onErrorResume(CallNotPermittedException.class, e -> {
+                    log.warn("Circuit breaker of route {} is {}, request rejected", route, circuitBreaker.getState());
+                    return Mono.just(reject(HttpStatus.SERVICE_UNAVAILABLE,
+                            "Сервис временно недоступен, повторите запрос позже",
+                            circuitBreaker.getCircuitBreakerConfig().getWaitIntervalFunctionInOpenState().apply(1)));
+                })
+                .onErrorResume(BulkheadFullException.class, e -> {
+                    log.warn("Bulkhead of route {} is full, request rejected", route);
+                    return Mono.just(reject(HttpStatus.SERVICE_UNAVAILABLE,
+                            "Слишком много одновременных запросов, повторите запрос позже", null));
+                })
+                .onErrorResume(ServerRouteGuard::isTransportFailure, e -> {
+                    log.warn("Request of route {} failed: {}", route, e.toString());
+                    return Mono.just(isTimeout(e)
+                            ? reject(HttpStatus.GATEWAY_TIMEOUT, "Сервер не ответил вовремя, повторите запрос позже", null)
+                            : reject(HttpStatus.BAD_GATEWAY, "Сервер недоступен, повторите запрос позже", null));
+                });
+    }
+
+
+    static String routeOf(HttpMethod method, String path) {
+        int queryStart = path.indexOf('?');
+        String pathWithoutQuery = queryStart < 0 ? path : path.substring(0, queryStart);
+        String template = ID_SEGMENT.matcher(pathWithoutQuery).replaceAll("/id");
+        return method.name().toLowerCase() + template.replace('/', '-');
+    }
+
+    private static boolean isServerFailure(ResponseEntity<Object> response) {
+        int status = response.getStatusCode().value();
+        return status == HttpStatus.BAD_GATEWAY.value() || status == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+
+    /**
+     * Ошибка обращения к серверу, а не обработки ответа: исключения RestTemplate и WebClient при отправке
+     * запроса и ошибки ввода-вывода при передаче тела запроса
+     */
+    private static boolean isTransportFailure(Throwable e) {
+        return e instanceof ResourceAccessException || e instanceof WebClientRequestException
+                || e instanceof IOException || e instanceof UncheckedIOException || isTimeout(e);
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof InterruptedIOException || cause instanceof TimeoutException
+                    || cause instanceof io.netty.handler.timeout.TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ResponseEntity<Object> reject(HttpStatus status, String message, Long retryAfterMillis) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (retryAfterMillis != null) {
+            headers.set(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, Duration.ofMillis(retryAfterMillis).toSeconds())));
+        }
+        return new ResponseEntity<>(Map.of("error", message), headers, status);
+    }
+
+}
@@ -0,0 +1,190 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Ограничение числа запросов пользователя (заголовок X-Sharer-User-Id) к серверу.
+ * Для каждой пары пользователь — маршрут (как в {@link ServerRouteGuard}, например get-bookings) ведётся
+ * token bucket: запрос забирает из него один токен, токены пополняются с постоянной скоростью до ёмкости квоты.
+ * Запрос пользователя, исчерпавшего квоту, не отправляется на сервер и сразу получает ответ 429 с Retry-After.
+ * Запросы без пользователя (получение вещи, поиск, запросы к /users и т.п.) ограничиваются той же квотой маршрута,
+ * но bucket ведётся для адреса клиента: на стеке Spring MVC он берётся из текущего запроса, на реактивном —
+ * из контекста Reactor (см. {@link ClientAddressWebFilter}). За обратным прокси адресом клиента будет адрес прокси,
+ * если не включена обработка заголовков Forwarded (server.forward-headers-strategy=framework).
+ * Запрос без пользователя, адрес клиента которого неизвестен (вне обработки входящего запроса), не ограничивается.
+ * Квоты задаются свойствами shareit-gateway.rate-limit.* (общая — в defaults, для отдельного маршрута —
+ * в routes.&lt;маршрут&gt;), число хранимых bucket ограничено max-buckets. Число отклонённых запросов
+ * публикуется в actuator как метрика shareit.gateway.rate-limit.rejected с тегом route
+ */
+@Component
+@Slf4j
+public class UserRateLimiter {
+
+    /**
+     * Ключ адреса клиента в контексте Reactor
+     */
+    public static final String CLIENT_ADDRESS_CONTEXT_KEY = UserRateLimiter.class.getName() + ".clientAddress";
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Ticker ticker;
+    private final Cache<String, TokenBucket> buckets;
+
+    /**
+     * Token bucket без блокировок. Вместо числа токенов хранится момент, когда bucket заполнится:
+     * каждый взятый токен сдвигает его на интервал пополнения, а запрос допускается, пока до этого момента
+     * остаётся меньше ёмкости минус один интервал. Состояние — одно число, поэтому изменяется атомарно
+     * через compareAndSet
+     */
+    private static final class TokenBucket {
+
+        private final long refillIntervalNanos;
+        private final long burstNanos;
+        private final AtomicLong fullAt;
+
+        private TokenBucket(RateLimitProperties.Quota quota, long now) {
+            this.refillIntervalNanos = refillIntervalNanos(quota);
+            this.burstNanos = (quota.getCapacity() - 1) * refillIntervalNanos;
+            this.fullAt = new AtomicLong(now);
+        }
+
+        /**
+         * Взять токен
+         *
+         * @param ticker источник текущего времени в наносекундах
+         * @return 0, если токен взят, иначе время в наносекундах до появления токена
+         */
+        private long tryAcquire(Ticker ticker) {
+            while (true) {
+                long now = ticker.read();
+                long current = fullAt.get();
+                long wait = current - now - burstNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, Math.max(current, now) + refillIntervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+    }
+
+    @Autowired
+    public UserRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    UserRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, Ticker ticker) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(longestRefill(properties))
+                .ticker(ticker)
+                .build();
+        if (properties.isEnabled()) {
+            log.info("User requests are limited to {} by default, route quotas: {}",
+                    properties.getDefaults(), properties.getRoutes());
+        }
+    }
+
+
+    /**
+     * Выполнить запрос пользователя, если его квота для маршрута не исчерпана.
+     * Квота проверяется при подписке на результат
+     *
+     * @param method  метод запроса
+     * @param path    путь запроса вместе с общим префиксом клиента
+     * @param userId  идентификатор пользователя; запросы без пользователя ограничиваются по адресу клиента
+     * @param request отправка запроса на сервер
+     */
+    public Mono<ResponseEntity<Object>> execute(HttpMethod method, String path, Long userId,
+                                                Supplier<Mono<ResponseEntity<Object>>> request) {
+        if (!properties.isEnabled()) {
+            return Mono.defer(request);
+        }
+        return Mono.deferContextual(context -> {
+            String client = userId != null ? "user:" + userId : clientAddress(context);
+            if (client == null) {
+                return request.get();
+            }
+            String route = ServerRouteGuard.routeOf(method, path);
+            RateLimitProperties.Quota quota = properties.getRoutes().getOrDefault(route, properties.getDefaults());
+            long wait = buckets.get(route + "|" + client, key -> new TokenBucket(quota, ticker.read()))
+                    .tryAcquire(ticker);
+            if (wait == 0) {
+                return request.get();
+            }
+            log.debug("Client {} exceeded quota of route {}, request rejected", client, route);
+            Counter.builder("shareit.gateway.rate-limit.rejected")
+                    .description("Requests rejected because the user exceeded the route quota")
+                    .tag("route", route)
+                    .register(meterRegistry)
+                    .increment();
+            return Mono.just(reject(wait));
+        });
+    }
+
+
+    @Nullable
+    private static String clientAddress(ContextView context) {
+        if (context.hasKey(CLIENT_ADDRESS_CONTEXT_KEY)) {
+            return "address:" + context.get(CLIENT_ADDRESS_CONTEXT_KEY);
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return "address:" + attributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+
+    private static long refillIntervalNanos(RateLimitProperties.Quota quota) {
+        return Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / quota.getRefillPerSecond()));
+    }
+
+    /**
+     * Bucket, к которому не обращались дольше времени его полного пополнения, не отличается от нового,
+     * поэтому удаляется из кэша
+     */
+    private static Duration longestRefill(RateLimitProperties properties) {
+        long longest = properties.getDefaults().getCapacity() * refillIntervalNanos(properties.getDefaults());
+        for (RateLimitProperties.Quota quota : properties.getRoutes().values()) {
+            longest = Math.max(longest, quota.getCapacity() * refillIntervalNanos(quota));
+        }
+        return Duration.ofNanos(longest);
+    }
+
+    private static ResponseEntity<Object> reject(long waitNanos) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+        return new ResponseEntity<>(Map.of("error", "Слишком много запросов, повторите запрос позже"), headers,
+                HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+}
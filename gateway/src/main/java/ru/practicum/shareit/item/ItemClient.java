@@ -1,58 +1,80 @@
 package ru.practicum.shareit.item;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerClientFactory;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class ItemClient extends BaseClient {
 
     private static final String API_PREFIX = "/items";
 
-    @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
-        );
+    public ItemClient(ServerClientFactory clientFactory) {
+        super(clientFactory, API_PREFIX);
     }
 
 
-    public ResponseEntity<Object> getAllItems(Long ownerId) {
+    public Mono<ResponseEntity<Object>> getAllItems(Long ownerId) {
         return get("", ownerId);
     }
 
-    public ResponseEntity<Object> getItemById(Long itemId) {
-        return get("/" + itemId);
+    public Mono<ResponseEntity<Object>> getItemById(Long itemId) {
+        return getRevalidated("/" + itemId);
+    }
+
+    public Mono<ResponseEntity<Object>> getItemsByIds(List<Long> ids) {
+        Map<String, Object> parameters = Map.of(
+                "ids", ids.stream().map(String::valueOf).collect(Collectors.joining(","))
+        );
+        return get("/batch?ids={ids}", parameters);
     }
 
-    public ResponseEntity<Object> addItem(ItemDto newItem, Long ownerId) {
+    public Mono<ResponseEntity<Object>> addItem(ItemDto newItem, Long ownerId) {
         return post("", ownerId, newItem);
     }
 
-    public ResponseEntity<Object> editItem(Long itemId, ItemDto editedItem, Long ownerId) {
+    /**
+     * Каталог передаётся серверу без разбора; формат (JSON-массив или NDJSON) сервер определяет по содержимому
+     */
+    public Mono<ResponseEntity<Object>> importItems(Flux<DataBuffer> items, Long ownerId) {
+        return postStream("/import", ownerId, items);
+    }
+
+    public Mono<ResponseEntity<Object>> editItem(Long itemId, ItemDto editedItem, Long ownerId) {
         return patch("/" + itemId, ownerId, editedItem);
     }
 
-    public ResponseEntity<Object> findItems(String text) {
+    public Mono<ResponseEntity<Object>> findItems(String text) {
         Map<String, Object> parameters = Map.of(
                 "text", text
         );
-        return get("", parameters);
+        return get("/search?text={text}", parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (from != null) {
+            parameters.put("from", from);
+        }
+        if (to != null) {
+            parameters.put("to", to);
+        }
+        return get(withQuery("/" + itemId + "/availability", parameters), parameters);
     }
 
-    public ResponseEntity<Object> addComment(Long itemId, CommentDto newComment, Long authorId) {
+    public Mono<ResponseEntity<Object>> addComment(Long itemId, CommentDto newComment, Long authorId) {
         return post("/" + itemId + "/comment", authorId, newComment);
     }
 
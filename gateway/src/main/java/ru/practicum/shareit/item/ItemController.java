@@ -1,14 +1,26 @@
 package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.RequestBodyStream;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 
 @RestController
 @RequestMapping(path = "/items")
@@ -20,6 +32,13 @@ public class ItemController {
 
     private final ItemClient itemClient;
 
+    /**
+     * Наибольшее число вещей в одном пакетном запросе. Большие списки отклоняются шлюзом, не доходя до сервера;
+     * сервер проверяет собственное ограничение независимо от шлюза
+     */
+    @Value("${shareit-gateway.items.max-batch-size:100}")
+    private int maxBatchSize;
+
 
     /**
      * Просмотр владельцем списка всех его вещей с указанием названия и описания для каждой из них
@@ -27,18 +46,35 @@ public class ItemController {
      * @param ownerId идентификатор пользователя — владельца вещи.
      */
     @GetMapping
-    public ResponseEntity<Object> getAllItems(@RequestHeader("X-Sharer-User-Id") Long ownerId) {
+    public Mono<ResponseEntity<Object>> getAllItems(@RequestHeader("X-Sharer-User-Id") Long ownerId) {
         log.info("Get all items of user with id = {}", ownerId);
         return itemClient.getAllItems(ownerId);
     }
 
+    /**
+     * Просмотр информации о нескольких вещах одним запросом (например, для ленты вещей)
+     *
+     * @param ids идентификаторы вещей через запятую
+     * @return Список найденных вещей в порядке идентификаторов. Повторяющиеся и несуществующие идентификаторы
+     * пропускаются.
+     */
+    @GetMapping("/batch")
+    public Mono<ResponseEntity<Object>> getItemsByIds(@RequestParam List<@Positive Long> ids) {
+        if (ids.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "За один запрос можно получить не более " + maxBatchSize + " вещей");
+        }
+        log.info("Get {} items by ids", ids.size());
+        return itemClient.getItemsByIds(ids);
+    }
+
     /**
      * Просмотр информации о конкретной вещи. Информацию о вещи может просмотреть любой пользователь.
      *
      * @param itemId идентификатор вещи
      */
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@PathVariable Long itemId) {
+    public Mono<ResponseEntity<Object>> getItemById(@PathVariable Long itemId) {
         log.info("Get item with id = {}", itemId);
         return itemClient.getItemById(itemId);
     }
@@ -53,12 +89,31 @@ public class ItemController {
      * @return DTO добавленной вещи
      */
     @PostMapping
-    public ResponseEntity<Object> addItem(@RequestBody @Valid ItemDto newItem,
-                                          @RequestHeader("X-Sharer-User-Id") Long ownerId) {
+    public Mono<ResponseEntity<Object>> addItem(@RequestBody @Valid ItemDto newItem,
+                                                @RequestHeader("X-Sharer-User-Id") Long ownerId) {
         log.info("Create new item");
         return itemClient.addItem(newItem, ownerId);
     }
 
+    /**
+     * Импорт каталога вещей владельца: JSON-массив DTO вещей или NDJSON (по одному DTO вещи в строке).
+     * Вещи проверяются так же, как при добавлении, строки с ошибками пропускаются.
+     * Каталог передаётся серверу по мере получения, не накапливаясь в памяти шлюза.
+     *
+     * @param items         каталог вещей
+     * @param ownerId       идентификатор пользователя — владельца вещей
+     * @param contentLength размер каталога в байтах, если клиент его указал
+     * @return Число добавленных вещей и строк с ошибками, номера строк с ошибками и описания ошибок.
+     */
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Object>> importItems(RequestBodyStream items,
+                                                    @RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                                    @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false)
+                                                    Long contentLength) {
+        log.info("Import items of user with id = {}, {} bytes", ownerId, contentLength);
+        return itemClient.importItems(items.body(), ownerId);
+    }
+
     /**
      * Редактирование иформации о вещи. Изменить можно название, описание и статус доступа к аренде.
      * Редактировать вещь может только её владелец.
@@ -69,9 +124,9 @@ public class ItemController {
      * @return DTO измененной вещи
      */
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> editItem(@PathVariable Long itemId,
-                                           @RequestBody @Valid ItemDto editedItem,
-                                           @RequestHeader("X-Sharer-User-Id") Long ownerId) {
+    public Mono<ResponseEntity<Object>> editItem(@PathVariable Long itemId,
+                                                 @RequestBody @Valid ItemDto editedItem,
+                                                 @RequestHeader("X-Sharer-User-Id") Long ownerId) {
         log.info("Update item with id = {}", itemId);
         return itemClient.editItem(itemId, editedItem, ownerId);
     }
@@ -83,11 +138,30 @@ public class ItemController {
      * @return Список вещей, содержащих текст из поискового запроса в названии или описании.
      */
     @GetMapping("/search")
-    public ResponseEntity<Object> findItems(@RequestParam("text") String text) {
+    public Mono<ResponseEntity<Object>> findItems(@RequestParam("text") String text) {
         log.info("Find items by text: {}", text);
         return itemClient.findItems(text);
     }
 
+    /**
+     * Просмотр свободных для бронирования интервалов вещи.
+     * Информацию о свободных интервалах может просмотреть любой пользователь.
+     *
+     * @param itemId идентификатор вещи
+     * @param from   начало периода, не раньше текущего момента (прошедшие бронирования не учитываются),
+     *               по умолчанию — текущий момент
+     * @param to     конец периода, по умолчанию — через 30 дней после начала периода
+     * @return Список свободных интервалов вещи в заданном периоде, упорядоченный по времени.
+     */
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<Object>> getItemAvailability(
+            @PathVariable Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Get availability of item with id = {} from {} to {}", itemId, from, to);
+        return itemClient.getItemAvailability(itemId, from, to);
+    }
+
     /**
      * Добавление отзыва о вещи, бывшей в бронировании.
      * Отзыв может оставлять только пользователь, который действительно брал вещь в аренду.
@@ -98,9 +172,9 @@ public class ItemController {
      * @return DTO добавленного отзыва
      */
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@PathVariable Long itemId,
-                                             @RequestBody @Valid CommentDto newComment,
-                                             @RequestHeader("X-Sharer-User-Id") Long authorId) {
+    public Mono<ResponseEntity<Object>> addComment(@PathVariable Long itemId,
+                                                   @RequestBody @Valid CommentDto newComment,
+                                                   @RequestHeader("X-Sharer-User-Id") Long authorId) {
         log.info("Add comment on item with id = {}", itemId);
         return itemClient.addComment(itemId, newComment, authorId);
     }
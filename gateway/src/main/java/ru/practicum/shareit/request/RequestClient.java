@@ -1,44 +1,48 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerClientFactory;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Service
 public class RequestClient extends BaseClient {
 
     private static final String API_PREFIX = "/requests";
 
-    @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
-        );
+    public RequestClient(ServerClientFactory clientFactory) {
+        super(clientFactory, API_PREFIX);
     }
 
 
-    public ResponseEntity<Object> getAllAnotherUserRequests(Long requestedUserId) {
-        return get("all", requestedUserId);
+    public Mono<ResponseEntity<Object>> getAllAnotherUserRequests(Long requestedUserId, LocalDateTime afterCreated,
+                                                                  Long afterId, int size) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("size", size);
+        if (afterCreated != null) {
+            parameters.put("afterCreated", afterCreated);
+        }
+        if (afterId != null) {
+            parameters.put("afterId", afterId);
+        }
+        return get(withQuery("/all", parameters), requestedUserId, parameters);
     }
 
-    public ResponseEntity<Object> getOnlyThisUserRequests(Long requestedUserId) {
+    public Mono<ResponseEntity<Object>> getOnlyThisUserRequests(Long requestedUserId) {
         return get("", requestedUserId);
     }
 
-    public ResponseEntity<Object> getRequestById(Long requestId) {
-        return get("/" + requestId);
+    public Mono<ResponseEntity<Object>> getRequestById(Long requestId) {
+        return getRevalidated("/" + requestId);
     }
 
-    public ResponseEntity<Object> addRequest(ItemRequestDto itemRequest, Long requestedUserId) {
+    public Mono<ResponseEntity<Object>> addRequest(ItemRequestDto itemRequest, Long requestedUserId) {
         return post("", requestedUserId, itemRequest);
     }
 
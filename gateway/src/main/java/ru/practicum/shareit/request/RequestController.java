@@ -1,13 +1,20 @@
 package ru.practicum.shareit.request;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.time.LocalDateTime;
+
 @RestController
 @RequestMapping(path = "/requests")
 @RequiredArgsConstructor
@@ -15,6 +22,8 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 @Validated
 public class RequestController {
 
+    private static final String DEFAULT_PAGE_SIZE = "100";
+
     private final RequestClient requestClient;
 
 
@@ -23,14 +32,23 @@ public class RequestController {
      * С помощью этого эндпоинта пользователи смогут просматривать существующие запросы,
      * на которые они могли бы ответить.
      * Запросы сортируются по дате создания от более новых к более старым.
+     * Для получения следующей страницы передаются дата создания и идентификатор последнего запроса
+     * предыдущей страницы.
      *
      * @param requestedUserId идентификатор текущего пользователя.
+     * @param afterCreated    дата создания последнего запроса предыдущей страницы
+     * @param afterId         идентификатор последнего запроса предыдущей страницы
+     * @param size            максимальное количество запросов на странице
      * @return список DTO запросов всех других пользователей.
      */
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllAnotherUserRequests(@RequestHeader("X-Sharer-User-Id") Long requestedUserId) {
-        log.info("Get all another user's requests by user with id = {}", requestedUserId);
-        return requestClient.getAllAnotherUserRequests(requestedUserId);
+    public Mono<ResponseEntity<Object>> getAllAnotherUserRequests(@RequestHeader("X-Sharer-User-Id") Long requestedUserId,
+                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreated,
+                                                                  @RequestParam(required = false) Long afterId,
+                                                                  @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Positive @Max(BaseClient.MAX_PAGE_SIZE) int size) {
+        log.info("Get all another user's requests by user with id = {}, after created={} id={}, size={}",
+                requestedUserId, afterCreated, afterId, size);
+        return requestClient.getAllAnotherUserRequests(requestedUserId, afterCreated, afterId, size);
     }
 
     /**
@@ -44,7 +62,7 @@ public class RequestController {
      * @return список DTO запросов текущего пользователя.
      */
     @GetMapping
-    public ResponseEntity<Object> getOnlyThisUserRequests(@RequestHeader("X-Sharer-User-Id") Long requestedUserId) {
+    public Mono<ResponseEntity<Object>> getOnlyThisUserRequests(@RequestHeader("X-Sharer-User-Id") Long requestedUserId) {
         log.info("Get all requests of user with id ={}", requestedUserId);
         return requestClient.getOnlyThisUserRequests(requestedUserId);
     }
@@ -57,7 +75,7 @@ public class RequestController {
      * @return DTO требуемого запроса.
      */
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(@PathVariable Long requestId) {
+    public Mono<ResponseEntity<Object>> getRequestById(@PathVariable Long requestId) {
         log.info("Get request with id = {}", requestId);
         return requestClient.getRequestById(requestId);
     }
@@ -70,8 +88,8 @@ public class RequestController {
      * @return DTO запроса вещи
      */
     @PostMapping
-    public ResponseEntity<Object> addRequest(@RequestBody @Valid ItemRequestDto itemRequest,
-                                             @RequestHeader("X-Sharer-User-Id") Long requestedUserId) {
+    public Mono<ResponseEntity<Object>> addRequest(@RequestBody @Valid ItemRequestDto itemRequest,
+                                                   @RequestHeader("X-Sharer-User-Id") Long requestedUserId) {
         log.info("Create new request");
         return requestClient.addRequest(itemRequest, requestedUserId);
     }
@@ -1,13 +1,10 @@
 package ru.practicum.shareit.user;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerClientFactory;
 import ru.practicum.shareit.user.dto.UserDto;
 
 
@@ -16,38 +13,32 @@ public class UserClient extends BaseClient {
 
     private static final String API_PREFIX = "/users";
 
-    @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
-        );
+    public UserClient(ServerClientFactory clientFactory) {
+        super(clientFactory, API_PREFIX);
     }
 
 
-    public ResponseEntity<Object> getAllUsers() {
+    public Mono<ResponseEntity<Object>> getAllUsers() {
         return get("");
     }
 
-    public ResponseEntity<Object> getUserById(Long userId) {
-        return get("/" + userId);
+    public Mono<ResponseEntity<Object>> getUserById(Long userId) {
+        return getRevalidated("/" + userId);
     }
 
-    public ResponseEntity<Object> addUser(UserDto userDto) {
+    public Mono<ResponseEntity<Object>> addUser(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> updateUser(Long userId, UserDto updateUser) {
+    public Mono<ResponseEntity<Object>> updateUser(Long userId, UserDto updateUser) {
         return patch("/" + userId, updateUser);
     }
 
-    public ResponseEntity<Object> deleteAllUsers() {
+    public Mono<ResponseEntity<Object>> deleteAllUsers() {
         return delete("");
     }
 
-    public ResponseEntity<Object> deleteUserById(Long userId) {
+    public Mono<ResponseEntity<Object>> deleteUserById(Long userId) {
         return delete("/" + userId);
     }
 
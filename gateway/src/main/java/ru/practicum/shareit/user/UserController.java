@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 
 
@@ -23,7 +24,7 @@ public class UserController {
      * Просмотр списка всех пользователей.
      */
     @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
+    public Mono<ResponseEntity<Object>> getAllUsers() {
         log.info("Get all users");
         return userClient.getAllUsers();
     }
@@ -34,7 +35,7 @@ public class UserController {
      * @param userId идентификатор возвращаемого пользователя
      */
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable Long userId) {
+    public Mono<ResponseEntity<Object>> getUserById(@PathVariable Long userId) {
         log.info("Get user with id = {}", userId);
         return userClient.getUserById(userId);
     }
@@ -46,7 +47,7 @@ public class UserController {
      * @return DTO добавленного пользователя
      */
     @PostMapping
-    public ResponseEntity<Object> addUser(@RequestBody @Valid UserDto newUser) {
+    public Mono<ResponseEntity<Object>> addUser(@RequestBody @Valid UserDto newUser) {
         log.info("Creating user");
         return userClient.addUser(newUser);
     }
@@ -59,8 +60,8 @@ public class UserController {
      * @return DTO измененного пользователя
      */
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@PathVariable Long userId,
-                                             @RequestBody @Valid UserDto updateUser) {
+    public Mono<ResponseEntity<Object>> updateUser(@PathVariable Long userId,
+                                                   @RequestBody @Valid UserDto updateUser) {
         log.info("Update user with id = {}", userId);
         return userClient.updateUser(userId, updateUser);
     }
@@ -69,7 +70,7 @@ public class UserController {
      * Удаление всех пользователей из системы.
      */
     @DeleteMapping
-    public ResponseEntity<Object> deleteAllUsers() {
+    public Mono<ResponseEntity<Object>> deleteAllUsers() {
         log.info("Delete all users");
         return userClient.deleteAllUsers();
     }
@@ -80,7 +81,7 @@ public class UserController {
      * @param userId идентификатор удаляемого пользователя
      */
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteUserById(@PathVariable Long userId) {
+    public Mono<ResponseEntity<Object>> deleteUserById(@PathVariable Long userId) {
         log.info("Delete user with id = {}", userId);
         return userClient.deleteUserById(userId);
     }
@@ -0,0 +1,148 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+
+public class RequestCoalescerTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(true, meterRegistry);
+    private final AtomicInteger sentRequests = new AtomicInteger();
+    private final Sinks.One<ResponseEntity<Object>> serverResponse = Sinks.one();
+    private final List<ResponseEntity<Object>> responses = new CopyOnWriteArrayList<>();
+    private final List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void shouldShareOneServerRequestBetweenConcurrentIdenticalRequests() {
+        String key = RequestCoalescer.keyOf("/items/1", null, null, null);
+        subscribe(key);
+        subscribe(key);
+        subscribe(key);
+        assertThat(sentRequests.get(), equalTo(1));
+        assertThat(inFlight(), equalTo(1.0));
+
+        serverResponse.tryEmitValue(ResponseEntity.ok("item"));
+        assertThat(responses.size(), equalTo(3));
+        responses.forEach(response -> assertThat(response.getBody(), equalTo("item")));
+        assertThat(counted("upstream"), equalTo(1.0));
+        assertThat(counted("coalesced"), equalTo(2.0));
+    }
+
+    @Test
+    public void shouldShareOneServerRequestBetweenRequestThreads() throws Exception {
+        String key = RequestCoalescer.keyOf("/items/1", null, null, null);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ResponseEntity<Object>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> coalescer.execute(key, this::send).block()));
+            }
+            while (counted("upstream") + counted("coalesced") < threads) {
+                Thread.sleep(10);
+            }
+            serverResponse.tryEmitValue(ResponseEntity.ok("item"));
+            for (Future<ResponseEntity<Object>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getBody(), equalTo("item"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(sentRequests.get(), equalTo(1));
+        assertThat(inFlight(), equalTo(0.0));
+    }
+
+    @Test
+    public void shouldNotCoalesceRequestsOfDifferentUsersOrValidators() {
+        String firstUser = RequestCoalescer.keyOf("/bookings", Map.of("size", 10), 1L, null);
+        String secondUser = RequestCoalescer.keyOf("/bookings", Map.of("size", 10), 2L, null);
+        String revalidated = RequestCoalescer.keyOf("/bookings", Map.of("size", 10), 1L, "\"1\"");
+        assertThat(secondUser, not(equalTo(firstUser)));
+        assertThat(revalidated, not(equalTo(firstUser)));
+        assertThat(RequestCoalescer.keyOf("/bookings", Map.of("size", 20), 1L, null), not(equalTo(firstUser)));
+
+        subscribe(firstUser);
+        subscribe(secondUser);
+        subscribe(revalidated);
+        assertThat(sentRequests.get(), equalTo(3));
+        assertThat(inFlight(), equalTo(3.0));
+    }
+
+    @Test
+    public void shouldReleaseKeyAfterServerResponse() {
+        String key = RequestCoalescer.keyOf("/items/1", null, null, null);
+        subscribe(key);
+        serverResponse.tryEmitValue(ResponseEntity.ok("item"));
+        assertThat(inFlight(), equalTo(0.0));
+
+        ResponseEntity<Object> next = coalescer.execute(key, () -> {
+            sentRequests.incrementAndGet();
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        }).block();
+        assertThat(next.getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+        assertThat(sentRequests.get(), equalTo(2));
+        assertThat(inFlight(), equalTo(0.0));
+    }
+
+    @Test
+    public void shouldReleaseKeyAfterServerError() {
+        String key = RequestCoalescer.keyOf("/items/1", null, null, null);
+        subscribe(key);
+        subscribe(key);
+        serverResponse.tryEmitError(new IllegalStateException("Connection refused"));
+        assertThat(errors.size(), equalTo(2));
+        errors.forEach(error -> assertThat(error, instanceOf(IllegalStateException.class)));
+        assertThat(inFlight(), equalTo(0.0));
+
+        subscribe(key);
+        assertThat(sentRequests.get(), equalTo(2));
+    }
+
+    @Test
+    public void shouldSendEveryRequestWhenDisabled() {
+        RequestCoalescer disabled = new RequestCoalescer(false, new SimpleMeterRegistry());
+        String key = RequestCoalescer.keyOf("/items/1", null, null, null);
+        disabled.execute(key, this::send).subscribe();
+        disabled.execute(key, this::send).subscribe();
+        assertThat(sentRequests.get(), equalTo(2));
+    }
+
+
+    private void subscribe(String key) {
+        coalescer.execute(key, this::send).subscribe(responses::add, errors::add);
+    }
+
+    private Mono<ResponseEntity<Object>> send() {
+        sentRequests.incrementAndGet();
+        return serverResponse.asMono();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("shareit.gateway.coalescing.in.flight").gauge().value();
+    }
+
+    private double counted(String result) {
+        return meterRegistry.get("shareit.gateway.coalescing.requests").tag("result", result).counter().count();
+    }
+
+}
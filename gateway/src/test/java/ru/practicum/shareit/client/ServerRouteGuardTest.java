@@ -0,0 +1,164 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ServerRouteGuardTest {
+
+    private final AtomicInteger sentRequests = new AtomicInteger();
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(2)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofSeconds(10))
+            .build());
+    private final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+    private final ServerRouteGuard routeGuard = new ServerRouteGuard(circuitBreakerRegistry, bulkheadRegistry);
+
+    @Test
+    public void shouldNameRoutesByMethodAndPathTemplate() {
+        assertThat(ServerRouteGuard.routeOf(HttpMethod.GET, "/bookings/owner?size={size}"),
+                equalTo("get-bookings-owner"));
+        assertThat(ServerRouteGuard.routeOf(HttpMethod.GET, "/items/15/availability"),
+                equalTo("get-items-id-availability"));
+        assertThat(ServerRouteGuard.routeOf(HttpMethod.POST, "/items/import"), equalTo("post-items-import"));
+    }
+
+    @Test
+    public void shouldRejectRequestsWhenCircuitBreakerIsOpen() {
+        circuitBreakerRegistry.circuitBreaker("get-items-id").transitionToOpenState();
+
+        ResponseEntity<Object> response = routeGuard.protect(HttpMethod.GET, "/items/1", respond(HttpStatus.OK))
+                .block();
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER), equalTo("10"));
+        assertThat(sentRequests.get(), equalTo(0));
+
+        ResponseEntity<Object> otherRoute = routeGuard.protect(HttpMethod.GET, "/users/1", respond(HttpStatus.OK))
+                .block();
+        assertThat(otherRoute.getStatusCode(), equalTo(HttpStatus.OK));
+    }
+
+    @Test
+    public void shouldOpenCircuitBreakerAfterServerFailures() {
+        for (int i = 0; i < 2; i++) {
+            ResponseEntity<Object> failure = routeGuard.protect(HttpMethod.GET, "/items/1",
+                    respond(HttpStatus.BAD_GATEWAY)).block();
+            assertThat(failure.getStatusCode(), equalTo(HttpStatus.BAD_GATEWAY));
+        }
+        assertThat(circuitBreakerRegistry.circuitBreaker("get-items-id").getState(),
+                equalTo(CircuitBreaker.State.OPEN));
+
+        ResponseEntity<Object> rejected = routeGuard.protect(HttpMethod.GET, "/items/2", respond(HttpStatus.OK))
+                .block();
+        assertThat(rejected.getStatusCode(), equalTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(sentRequests.get(), equalTo(2));
+    }
+
+    @Test
+    public void shouldNotCountClientErrorsAsFailures() {
+        for (int i = 0; i < 4; i++) {
+            routeGuard.protect(HttpMethod.GET, "/items/1", respond(HttpStatus.NOT_FOUND)).block();
+        }
+        assertThat(circuitBreakerRegistry.circuitBreaker("get-items-id").getState(),
+                equalTo(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void shouldRejectRequestsWhenBulkheadIsFull() {
+        Sinks.One<ResponseEntity<Object>> slowResponse = Sinks.one();
+        Disposable slowRequest = routeGuard.protect(HttpMethod.GET, "/items/1", slowResponse.asMono()).subscribe();
+
+        ResponseEntity<Object> rejected = routeGuard.protect(HttpMethod.GET, "/items/2", respond(HttpStatus.OK))
+                .block();
+        assertThat(rejected.getStatusCode(), equalTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER), nullValue());
+        assertThat(sentRequests.get(), equalTo(0));
+
+        slowResponse.tryEmitValue(ResponseEntity.ok().build());
+        assertThat(slowRequest.isDisposed(), equalTo(true));
+        ResponseEntity<Object> accepted = routeGuard.protect(HttpMethod.GET, "/items/2", respond(HttpStatus.OK))
+                .block();
+        assertThat(accepted.getStatusCode(), equalTo(HttpStatus.OK));
+    }
+
+    @Test
+    public void shouldRespondBadGatewayWhenServerIsUnreachable() {
+        ResponseEntity<Object> response = routeGuard.protect(HttpMethod.GET, "/items/1",
+                fail(new ResourceAccessException("I/O error on GET request",
+                        new ConnectException("Connection refused")))).block();
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.BAD_GATEWAY));
+        assertThat(response.getHeaders().getContentType(), equalTo(MediaType.APPLICATION_JSON));
+        assertThat(response.getBody(), equalTo(Map.of("error", "Сервер недоступен, повторите запрос позже")));
+    }
+
+    @Test
+    public void shouldRespondGatewayTimeoutWhenServerDoesNotRespondInTime() {
+        ResponseEntity<Object> response = routeGuard.protect(HttpMethod.GET, "/items/1",
+                fail(new ResourceAccessException("I/O error on GET request",
+                        new SocketTimeoutException("Read timed out")))).block();
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.GATEWAY_TIMEOUT));
+        assertThat(response.getBody(), equalTo(Map.of("error", "Сервер не ответил вовремя, повторите запрос позже")));
+    }
+
+    @Test
+    public void shouldCountTransportFailuresByCircuitBreaker() {
+        for (int i = 0; i < 2; i++) {
+            ResponseEntity<Object> failure = routeGuard.protect(HttpMethod.GET, "/items/1",
+                    fail(new ConnectException("Connection refused"))).block();
+            assertThat(failure.getStatusCode(), equalTo(HttpStatus.BAD_GATEWAY));
+        }
+        assertThat(circuitBreakerRegistry.circuitBreaker("get-items-id").getState(),
+                equalTo(CircuitBreaker.State.OPEN));
+        assertThat(sentRequests.get(), equalTo(2));
+    }
+
+    @Test
+    public void shouldPropagateOtherErrors() {
+        Assertions.assertThrows(IllegalStateException.class, () -> routeGuard.protect(HttpMethod.GET, "/items/1",
+                fail(new IllegalStateException("Unexpected"))).block());
+    }
+
+
+    private Mono<ResponseEntity<Object>> fail(Exception error) {
+        return Mono.defer(() -> {
+            sentRequests.incrementAndGet();
+            return Mono.error(error);
+        });
+    }
+
+    private Mono<ResponseEntity<Object>> respond(HttpStatus status) {
+        return Mono.fromSupplier(() -> {
+            sentRequests.incrementAndGet();
+            return ResponseEntity.status(status).build();
+        });
+    }
+
+}
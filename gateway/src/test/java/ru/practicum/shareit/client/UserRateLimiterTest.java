@@ -0,0 +1,164 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+public class UserRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger sentRequests = new AtomicInteger();
+    private RateLimitProperties properties;
+
+    @BeforeEach
+    public void initProperties() {
+        properties = new RateLimitProperties();
+        properties.setDefaults(new RateLimitProperties.Quota(3, 1));
+    }
+
+    @Test
+    public void shouldAllowBurstUpToCapacityAndRejectWithRetryAfter() {
+        UserRateLimiter rateLimiter = createRateLimiter();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(send(rateLimiter, 1L).getStatusCode(), equalTo(HttpStatus.OK));
+        }
+        ResponseEntity<Object> rejected = send(rateLimiter, 1L);
+        assertThat(rejected.getStatusCode(), equalTo(HttpStatus.TOO_MANY_REQUESTS));
+        assertThat(rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER), equalTo("1"));
+        assertThat(sentRequests.get(), equalTo(3));
+
+        assertThat(send(rateLimiter, 2L).getStatusCode(), equalTo(HttpStatus.OK));
+    }
+
+    @Test
+    public void shouldRefillTokensWithConfiguredRate() {
+        UserRateLimiter rateLimiter = createRateLimiter();
+        for (int i = 0; i < 3; i++) {
+            send(rateLimiter, 1L);
+        }
+        assertThat(send(rateLimiter, 1L).getStatusCode(), equalTo(HttpStatus.TOO_MANY_REQUESTS));
+
+        advance(Duration.ofMillis(500));
+        assertThat(send(rateLimiter, 1L).getStatusCode(), equalTo(HttpStatus.TOO_MANY_REQUESTS));
+
+        advance(Duration.ofMillis(500));
+        assertThat(send(rateLimiter, 1L).getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(send(rateLimiter, 1L).getStatusCode(), equalTo(HttpStatus.TOO_MANY_REQUESTS));
+
+        advance(Duration.ofSeconds(10));
+        for (int i = 0; i < 3; i++) {
+            assertThat(send(rateLimiter, 1L).getStatusCode(), equalTo(HttpStatus.OK));
+        }
+        assertThat(send(rateLimiter, 1L).getStatusCode(), equalTo(HttpStatus.TOO_MANY_REQUESTS));
+    }
+
+    @Test
+    public void shouldLimitRequestsWithoutUserByClientAddress() {
+        UserRateLimiter rateLimiter = createRateLimiter();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(sendFrom(rateLimiter, "10.0.0.1").getStatusCode(), equalTo(HttpStatus.OK));
+        }
+        ResponseEntity<Object> rejected = sendFrom(rateLimiter, "10.0.0.1");
+        assertThat(rejected.getStatusCode(), equalTo(HttpStatus.TOO_MANY_REQUESTS));
+        assertThat(rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER), equalTo("1"));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(sendFrom(rateLimiter, "10.0.0.2").getStatusCode(), equalTo(HttpStatus.OK));
+        }
+        assertThat(sendFrom(rateLimiter, "10.0.0.2").getStatusCode(), equalTo(HttpStatus.TOO_MANY_REQUESTS));
+        assertThat(sentRequests.get(), equalTo(6));
+    }
+
+    @Test
+    public void shouldLimitRequestsWithoutUserByServletRequestAddress() {
+        UserRateLimiter rateLimiter = createRateLimiter();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            for (int i = 0; i < 3; i++) {
+                assertThat(send(rateLimiter, "/items/1", null).getStatusCode(), equalTo(HttpStatus.OK));
+            }
+            assertThat(send(rateLimiter, "/items/1", null).getStatusCode(), equalTo(HttpStatus.TOO_MANY_REQUESTS));
+
+            request.setRemoteAddr("10.0.0.2");
+            assertThat(send(rateLimiter, "/items/1", null).getStatusCode(), equalTo(HttpStatus.OK));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    public void shouldNotLimitRequestsWhenDisabled() {
+        properties.setEnabled(false);
+        UserRateLimiter rateLimiter = createRateLimiter();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(send(rateLimiter, 1L).getStatusCode(), equalTo(HttpStatus.OK));
+        }
+    }
+
+    @Test
+    public void shouldRejectNonPositiveQuotas() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        assertThat(validator.validate(properties), empty());
+
+        properties.setDefaults(new RateLimitProperties.Quota(0, 1));
+        properties.getRoutes().put("get-bookings", new RateLimitProperties.Quota(5, 0));
+        properties.setMaxBuckets(0);
+        assertThat(validator.validate(properties), hasSize(3));
+    }
+
+
+    private UserRateLimiter createRateLimiter() {
+        return new UserRateLimiter(properties, new SimpleMeterRegistry(), now::get);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private ResponseEntity<Object> send(UserRateLimiter rateLimiter, Long userId) {
+        return send(rateLimiter, "/bookings", userId);
+    }
+
+    private ResponseEntity<Object> send(UserRateLimiter rateLimiter, String path, Long userId) {
+        return request(rateLimiter, path, userId).block();
+    }
+
+    private ResponseEntity<Object> sendFrom(UserRateLimiter rateLimiter, String address) {
+        return request(rateLimiter, "/items/1", null)
+                .contextWrite(Context.of(UserRateLimiter.CLIENT_ADDRESS_CONTEXT_KEY, address))
+                .block();
+    }
+
+    private Mono<ResponseEntity<Object>> request(UserRateLimiter rateLimiter, String path, Long userId) {
+        return rateLimiter.execute(HttpMethod.GET, path, userId, () -> {
+            sentRequests.incrementAndGet();
+            return Mono.just(ResponseEntity.ok().build());
+        });
+    }
+
+}
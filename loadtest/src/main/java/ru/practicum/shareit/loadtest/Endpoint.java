@@ -0,0 +1,25 @@
+package ru.practicum.shareit.loadtest;
+
+/**
+ * Вызываемые в нагрузочном тесте эндпоинты шлюза с долей каждого из них в смеси запросов по умолчанию (в процентах)
+ */
+enum Endpoint {
+
+    SEARCH("search", "GET /items/search", 30),
+    ITEM_VIEW("item", "GET /items/{id}", 30),
+    BOOKING_CREATE("book", "POST /bookings", 15),
+    BOOKING_APPROVE("approve", "PATCH /bookings/{id}", 10),
+    OWNER_BOOKINGS("owner-bookings", "GET /bookings/owner", 10),
+    OWNER_ITEMS("owner-items", "GET /items", 5);
+
+    final String key;
+    final String title;
+    final int defaultWeight;
+
+    Endpoint(String key, String title, int defaultWeight) {
+        this.key = key;
+        this.title = title;
+        this.defaultWeight = defaultWeight;
+    }
+
+}
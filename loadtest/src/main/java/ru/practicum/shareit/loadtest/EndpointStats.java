@@ -0,0 +1,71 @@
+package ru.practicum.shareit.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Задержки и ошибки запросов к одному эндпоинту за время измерения.
+ * Задержка отсчитывается от запланированного времени отправки запроса, а не от фактического,
+ * поэтому ожидание в очереди перегруженного клиента тоже входит в задержку
+ */
+class EndpointStats {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+    private long dropped;
+    private long skipped;
+
+
+    synchronized void record(long latencyNanos, boolean successful) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (!successful) {
+            errors++;
+        }
+    }
+
+    /**
+     * Запрос не отправлен, потому что достигнут предел одновременно выполняемых запросов
+     */
+    synchronized void drop() {
+        dropped++;
+    }
+
+    /**
+     * Запрос не отправлен, потому что для него нет данных (например, нет бронирований, ожидающих подтверждения)
+     */
+    synchronized void skip() {
+        skipped++;
+    }
+
+    synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Summary(count, errors, dropped, skipped, count / seconds,
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                count == 0 ? 0 : toMillis(sorted[count - 1]));
+    }
+
+    record Summary(long requests, long errors, long dropped, long skipped, double throughput,
+                   double p50, double p95, double p99, double max) {
+    }
+
+
+    /**
+     * Перцентиль по методу ближайшего ранга, в миллисекундах
+     */
+    private static double percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return toMillis(sorted[Math.max(rank, 1) - 1]);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+}
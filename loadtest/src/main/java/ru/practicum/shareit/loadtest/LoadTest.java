@@ -0,0 +1,180 @@
+package ru.practicum.shareit.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест связки шлюз + сервер.
+ * Запускает сервер и шлюз из собранных jar-файлов (или подключается к уже запущенному шлюзу с --start-services=false),
+ * заполняет их данными через API и отправляет смесь запросов с постоянной интенсивностью --rps в течение
+ * --warmup и --duration секунд. Запросы отправляются по расписанию независимо от времени ответа на предыдущие
+ * (открытая модель нагрузки). По окончании выводит для каждого эндпоинта число запросов и ошибок, пропускную
+ * способность и перцентили задержки p50/p95/p99 за время измерения и сохраняет их в CSV-файл --report.
+ * С --concurrency запросы отправляются заданным числом клиентов без пауз (закрытая модель нагрузки)
+ */
+public class LoadTest {
+
+    private static final String HEADER_FORMAT = "%-22s %9s %7s %8s %8s %10s %9s %9s %9s %9s%n";
+    private static final String ROW_FORMAT = "%-22s %9d %7d %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        String gatewayUrl = options.string("gateway-url",
+                "http://localhost:" + options.integer("gateway-port", 8080));
+        ShareItApi api = new ShareItApi(gatewayUrl);
+        File report = new File(options.string("report", "loadtest-report.csv"));
+
+        try (ServiceProcesses ignored = options.flag("start-services", true)
+                ? ServiceProcesses.start(options, api, report.getAbsoluteFile().getParentFile()) : null) {
+            Random random = new Random(options.longValue("seed", 42));
+            Workload workload = new Workload(api, options.string("mix", null));
+            workload.seed(options.integer("users", 50), options.integer("items-per-user", 4), random);
+
+            int rps = options.integer("rps", 100);
+            int concurrency = options.integer("concurrency", 0);
+            Duration warmup = options.duration("warmup", Duration.ofSeconds(10));
+            Duration duration = options.duration("duration", Duration.ofSeconds(60));
+            Map<Endpoint, EndpointStats> stats;
+            if (concurrency > 0) {
+                System.out.printf("Running %d concurrent clients against %s: warmup %s, measurement %s%n",
+                        concurrency, gatewayUrl, warmup, duration);
+                stats = runClosed(workload, options.longValue("seed", 42), concurrency, warmup, duration);
+            } else {
+                System.out.printf("Running %d req/s against %s: warmup %s, measurement %s%n",
+                        rps, gatewayUrl, warmup, duration);
+                stats = run(workload, random, rps, warmup, duration, options.integer("max-in-flight", 1000));
+            }
+            report(stats, duration, report);
+        }
+    }
+
+
+    /**
+     * Закрытая модель нагрузки: каждый из concurrency клиентов отправляет следующий запрос сразу после ответа
+     * на предыдущий. Пропускная способность в этом режиме — наибольшая, которую выдерживает связка
+     * при заданном числе одновременных запросов
+     */
+    private static Map<Endpoint, EndpointStats> runClosed(Workload workload, long seed, int concurrency,
+                                                          Duration warmup, Duration duration) {
+        Map<Endpoint, EndpointStats> stats = createStats();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long endTime = measureFrom + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < concurrency; client++) {
+                Random random = new Random(seed + client);
+                executor.execute(() -> {
+                    long started;
+                    while ((started = System.nanoTime()) < endTime) {
+                        Endpoint endpoint = workload.nextEndpoint(random);
+                        Workload.Operation operation = workload.prepare(endpoint, random);
+                        execute(operation, started, started >= measureFrom ? stats.get(endpoint) : null);
+                    }
+                });
+            }
+        }
+        return stats;
+    }
+
+    private static Map<Endpoint, EndpointStats> run(Workload workload, Random random, int rps, Duration warmup,
+                                                    Duration duration, int maxInFlight) throws InterruptedException {
+        Map<Endpoint, EndpointStats> stats = createStats();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rps;
+        long startTime = System.nanoTime();
+        long measureFrom = startTime + warmup.toNanos();
+        long endTime = measureFrom + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long scheduled = startTime + i * interval;
+                if (scheduled >= endTime) {
+                    break;
+                }
+                sleepUntil(scheduled);
+                Endpoint endpoint = workload.nextEndpoint(random);
+                Workload.Operation operation = workload.prepare(endpoint, random);
+                EndpointStats endpointStats = scheduled >= measureFrom ? stats.get(endpoint) : null;
+                if (!inFlight.tryAcquire()) {
+                    if (endpointStats != null) {
+                        endpointStats.drop();
+                    }
+                    continue;
+                }
+                executor.execute(() -> {
+                    try {
+                        execute(operation, scheduled, endpointStats);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return stats;
+    }
+
+    private static Map<Endpoint, EndpointStats> createStats() {
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+        return stats;
+    }
+
+    private static void execute(Workload.Operation operation, long scheduled, EndpointStats stats) {
+        boolean successful;
+        try {
+            ShareItApi.Response response = operation.call();
+            if (response == null) {
+                if (stats != null) {
+                    stats.skip();
+                }
+                return;
+            }
+            successful = response.isSuccessful();
+        } catch (IOException e) {
+            successful = false;
+        }
+        if (stats != null) {
+            stats.record(System.nanoTime() - scheduled, successful);
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long delay;
+        while ((delay = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(delay);
+        }
+    }
+
+    private static void report(Map<Endpoint, EndpointStats> stats, Duration duration, File report)
+            throws IOException {
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf(HEADER_FORMAT, "endpoint", "requests", "errors", "dropped", "skipped",
+                "req/s", "p50,ms", "p95,ms", "p99,ms", "max,ms");
+        try (PrintWriter csv = new PrintWriter(report, StandardCharsets.UTF_8)) {
+            csv.println("endpoint,requests,errors,dropped,skipped,throughput,p50_ms,p95_ms,p99_ms,max_ms");
+            for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+                EndpointStats.Summary s = entry.getValue().summarize(seconds);
+                String title = entry.getKey().title;
+                System.out.printf(Locale.ROOT, ROW_FORMAT, title, s.requests(), s.errors(), s.dropped(),
+                        s.skipped(), s.throughput(), s.p50(), s.p95(), s.p99(), s.max());
+                csv.printf(Locale.ROOT, "%s,%d,%d,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f%n", title, s.requests(),
+                        s.errors(), s.dropped(), s.skipped(), s.throughput(), s.p50(), s.p95(), s.p99(), s.max());
+            }
+        }
+        System.out.println("Report saved to " + report.getAbsolutePath());
+    }
+
+}
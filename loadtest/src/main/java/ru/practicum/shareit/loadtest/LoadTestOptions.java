@@ -0,0 +1,58 @@
+package ru.practicum.shareit.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Параметры нагрузочного теста, передаваемые в командной строке в виде --имя=значение.
+ * Если параметр указан несколько раз, действует последнее значение
+ */
+class LoadTestOptions {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                options.values.put(arg.substring(2), "true");
+            } else {
+                options.values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+
+    String string(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int integer(String name, int defaultValue) {
+        return values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+    }
+
+    long longValue(String name, long defaultValue) {
+        return values.containsKey(name) ? Long.parseLong(values.get(name)) : defaultValue;
+    }
+
+    boolean flag(String name, boolean defaultValue) {
+        return values.containsKey(name) ? Boolean.parseBoolean(values.get(name)) : defaultValue;
+    }
+
+    /**
+     * Длительность в секундах или в формате ISO-8601 (PT1M)
+     */
+    Duration duration(String name, Duration defaultValue) {
+        if (!values.containsKey(name)) {
+            return defaultValue;
+        }
+        String value = values.get(name);
+        return value.startsWith("P") ? Duration.parse(value) : Duration.ofSeconds(Long.parseLong(value));
+    }
+
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Сервер и шлюз, запущенные отдельными процессами из собранных jar-файлов.
+ * Вывод каждого процесса пишется в файл рядом с отчётом. Процессы останавливаются при закрытии
+ */
+class ServiceProcesses implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final List<Process> processes = new ArrayList<>();
+
+
+    static ServiceProcesses start(LoadTestOptions options, ShareItApi api, File logDirectory)
+            throws IOException, InterruptedException {
+        int serverPort = options.integer("server-port", 9090);
+        String jvmArgs = options.string("jvm-args", "");
+        String virtualThreads = "--spring.threads.virtual.enabled=" + options.flag("virtual-threads", false);
+        ServiceProcesses services = new ServiceProcesses();
+        try {
+            services.launch(options.string("server-jar", null), new File(logDirectory, "loadtest-server.log"),
+                    jvmArgs, options.string("server-args", ""),
+                    "--server.port=" + serverPort, virtualThreads);
+            services.launch(options.string("gateway-jar", null), new File(logDirectory, "loadtest-gateway.log"),
+                    jvmArgs, options.string("gateway-args", ""),
+                    "--server.port=" + options.integer("gateway-port", 8080),
+                    "--shareit-server.url=http://localhost:" + serverPort, virtualThreads,
+                    "--shareit-gateway.rate-limit.enabled=" + options.flag("rate-limit", false));
+            services.awaitReady(api);
+            return services;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            services.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Process process : processes) {
+            process.destroy();
+        }
+        for (Process process : processes) {
+            try {
+                process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+
+
+    private void launch(String jar, File log, String jvmArgs, String extraArgs, String... args) throws IOException {
+        if (jar == null || !new File(jar).isFile()) {
+            throw new IllegalArgumentException("Jar not found: " + jar + ". Build the project first");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(split(jvmArgs));
+        command.add("-jar");
+        command.add(jar);
+        command.addAll(Arrays.asList(args));
+        command.addAll(split(extraArgs));
+        log.getParentFile().mkdirs();
+        processes.add(new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start());
+        System.out.println("Started " + jar + ", output in " + log);
+    }
+
+    private static List<String> split(String args) {
+        return args.isBlank() ? List.of() : Arrays.asList(args.trim().split("\\s+"));
+    }
+
+    /**
+     * Ожидание, пока шлюз не начнёт отвечать на запросы к серверу
+     */
+    private void awaitReady(ShareItApi api) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            for (Process process : processes) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Service process exited with code " + process.exitValue());
+                }
+            }
+            if (api.isReady()) {
+                return;
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Services did not start in " + STARTUP_TIMEOUT);
+    }
+
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * HTTP-клиент API шлюза, которым пользуется нагрузочный тест
+ */
+class ShareItApi {
+
+    private static final String SHARER_USER_ID = "X-Sharer-User-Id";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    ShareItApi(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    record Response(int status, String body) {
+
+        boolean isSuccessful() {
+            return status >= 200 && status < 300;
+        }
+
+    }
+
+
+    boolean isReady() {
+        try {
+            return get("/users", null).isSuccessful();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    Response get(String path, Long userId) throws IOException {
+        return send(request(path, userId).GET());
+    }
+
+    Response post(String path, Long userId, Map<String, Object> body) throws IOException {
+        return send(request(path, userId)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))));
+    }
+
+    Response patch(String path, Long userId) throws IOException {
+        return send(request(path, userId).method("PATCH", HttpRequest.BodyPublishers.noBody()));
+    }
+
+    long id(Response response) throws IOException {
+        if (!response.isSuccessful()) {
+            throw new IOException("Unexpected response " + response.status() + ": " + response.body());
+        }
+        JsonNode id = objectMapper.readTree(response.body()).get("id");
+        if (id == null) {
+            throw new IOException("No id in response: " + response.body());
+        }
+        return id.asLong();
+    }
+
+    static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+
+    private HttpRequest.Builder request(String path, Long userId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT);
+        if (userId != null) {
+            builder.header(SHARER_USER_ID, userId.toString());
+        }
+        return builder;
+    }
+
+    private Response send(HttpRequest.Builder request) throws IOException {
+        try {
+            HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            return new Response(response.statusCode(), response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Request interrupted", e);
+        }
+    }
+
+}
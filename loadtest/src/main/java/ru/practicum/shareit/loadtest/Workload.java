@@ -0,0 +1,155 @@
+package ru.practicum.shareit.loadtest;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Смесь запросов нагрузочного теста.
+ * Перед измерением через API шлюза создаются пользователи и их вещи. Затем для каждого запроса выбирается эндпоинт
+ * (с вероятностью, пропорциональной его доле в смеси) и параметры запроса. Выбор выполняется одним потоком
+ * по генератору случайных чисел с заданным начальным значением, поэтому последовательность запросов воспроизводима.
+ * Подтверждаются бронирования, созданные в ходе теста: владелец вещи подтверждает самое старое
+ * из ещё не подтверждённых
+ */
+class Workload {
+
+    private static final String[] ITEM_NAMES = {"Дрель", "Палатка", "Велосипед", "Лестница", "Фотоаппарат", "Пила",
+            "Байдарка", "Штатив", "Проектор", "Гриль", "Молоток", "Дрон", "Гитара", "Самокат", "Спальник", "Рюкзак"};
+    private static final String[] DESCRIPTIONS = {"почти новая", "для дачи и ремонта", "для путешествий",
+            "с зарядкой и чехлом", "лёгкая и компактная", "для отдыха на выходных"};
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final ShareItApi api;
+    private final Endpoint[] endpoints = Endpoint.values();
+    private final int[] cumulativeWeights = new int[endpoints.length];
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> itemIds = new ArrayList<>();
+    private final List<Long> itemOwnerIds = new ArrayList<>();
+    private final Queue<long[]> waitingBookings = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Операция, подготовленная к выполнению. Возвращает null, если выполнять её не с чем
+     */
+    interface Operation {
+
+        ShareItApi.Response call() throws IOException;
+
+    }
+
+    /**
+     * @param mix доли эндпоинтов в виде search:30,item:30,...; не указанные эндпоинты берутся с долей по умолчанию
+     */
+    Workload(ShareItApi api, String mix) {
+        this.api = api;
+        Map<String, Integer> weights = new HashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            weights.put(endpoint.key, endpoint.defaultWeight);
+        }
+        if (mix != null && !mix.isBlank()) {
+            for (String part : mix.split(",")) {
+                String[] keyAndWeight = part.trim().split(":");
+                if (keyAndWeight.length != 2 || !weights.containsKey(keyAndWeight[0])) {
+                    throw new IllegalArgumentException("Unknown mix entry: " + part);
+                }
+                weights.put(keyAndWeight[0], Integer.parseInt(keyAndWeight[1]));
+            }
+        }
+        int sum = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            sum += weights.get(endpoints[i].key);
+            cumulativeWeights[i] = sum;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("Workload mix is empty: " + mix);
+        }
+    }
+
+
+    void seed(int users, int itemsPerUser, Random random) throws IOException {
+        long runId = System.currentTimeMillis();
+        for (int i = 0; i < users; i++) {
+            Map<String, Object> user = Map.of("name", "Load user " + i, "email", "load" + runId + "-" + i + "@shareit.test");
+            userIds.add(api.id(api.post("/users", null, user)));
+        }
+        for (Long ownerId : userIds) {
+            for (int i = 0; i < itemsPerUser; i++) {
+                Map<String, Object> item = Map.of(
+                        "name", ITEM_NAMES[random.nextInt(ITEM_NAMES.length)] + " " + (random.nextInt(900) + 100),
+                        "description", DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)],
+                        "available", true);
+                itemIds.add(api.id(api.post("/items", ownerId, item)));
+                itemOwnerIds.add(ownerId);
+            }
+        }
+        if (userIds.size() < 2 || itemIds.isEmpty()) {
+            throw new IllegalArgumentException("Workload needs at least two users and one item");
+        }
+    }
+
+    Endpoint nextEndpoint(Random random) {
+        int point = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < endpoints.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        throw new IllegalStateException("Weight out of range: " + point);
+    }
+
+    Operation prepare(Endpoint endpoint, Random random) {
+        int item = random.nextInt(itemIds.size());
+        Long itemId = itemIds.get(item);
+        Long ownerId = itemOwnerIds.get(item);
+        switch (endpoint) {
+            case SEARCH:
+                String text = ITEM_NAMES[random.nextInt(ITEM_NAMES.length)].toLowerCase(Locale.ROOT);
+                return () -> api.get("/items/search?text=" + ShareItApi.encode(text), null);
+            case ITEM_VIEW:
+                return () -> api.get("/items/" + itemId, null);
+            case BOOKING_CREATE:
+                return prepareBooking(random, itemId, ownerId);
+            case BOOKING_APPROVE:
+                return () -> {
+                    long[] booking = waitingBookings.poll();
+                    return booking == null ? null
+                            : api.patch("/bookings/" + booking[0] + "?approved=true", booking[1]);
+                };
+            case OWNER_BOOKINGS:
+                return () -> api.get("/bookings/owner?state=ALL&size=20", ownerId);
+            case OWNER_ITEMS:
+                return () -> api.get("/items", ownerId);
+            default:
+                throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+        }
+    }
+
+
+    /**
+     * Бронирование случайной длительности (до двух суток) в течение ближайшего года пользователем, не владеющим вещью
+     */
+    private Operation prepareBooking(Random random, Long itemId, Long ownerId) {
+        Long bookerId;
+        do {
+            bookerId = userIds.get(random.nextInt(userIds.size()));
+        } while (bookerId.equals(ownerId));
+        long startOffsetMinutes = ChronoUnit.DAYS.getDuration().toMinutes() + random.nextInt(365 * 24 * 60);
+        long lengthMinutes = 60 + random.nextInt(47 * 60);
+        Long booker = bookerId;
+        return () -> {
+            LocalDateTime start = LocalDateTime.now().plusMinutes(startOffsetMinutes).truncatedTo(ChronoUnit.SECONDS);
+            Map<String, Object> booking = Map.of("itemId", itemId,
+                    "start", DATE_TIME.format(start),
+                    "end", DATE_TIME.format(start.plusMinutes(lengthMinutes)));
+            ShareItApi.Response response = api.post("/bookings", booker, booking);
+            if (response.isSuccessful()) {
+                waitingBookings.add(new long[]{api.id(response), ownerId});
+            }
+            return response;
+        };
+    }
+
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -8,6 +9,7 @@ import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.BookingFilter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -16,19 +18,29 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
 
+    private static final String DEFAULT_PAGE_SIZE = "100";
+
     private final BookingService bookingService;
 
 
     @GetMapping
     public ResponseEntity<List<BookingResponseDto>> getAllUserBookings(@RequestHeader("X-Sharer-User-Id") Long requestedUserId,
-                                                                       @RequestParam(defaultValue = "ALL", required = false) BookingFilter existFilter) {
-        return ResponseEntity.ok().body(bookingService.getAllUserBookings(requestedUserId, existFilter));
+                                                                       @RequestParam(defaultValue = "ALL", required = false) BookingFilter existFilter,
+                                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+                                                                       @RequestParam(required = false) Long afterId,
+                                                                       @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok().body(bookingService.getAllUserBookings(requestedUserId, existFilter,
+                afterStart, afterId, size));
     }
 
     @GetMapping("/owner")
     public ResponseEntity<List<BookingResponseDto>> getAllItemBookings(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                                                       @RequestParam(defaultValue = "ALL", required = false) BookingFilter existFilter) {
-        return ResponseEntity.ok().body(bookingService.getAllItemBookings(ownerId, existFilter));
+                                                                       @RequestParam(defaultValue = "ALL", required = false) BookingFilter existFilter,
+                                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+                                                                       @RequestParam(required = false) Long afterId,
+                                                                       @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok().body(bookingService.getAllItemBookings(ownerId, existFilter,
+                afterStart, afterId, size));
     }
 
     @GetMapping("/{bookingId}")
@@ -1,26 +1,97 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findByRequestedUser(User requestedUser);
+    Window<Booking> findByRequestedUserOrderByStartDescIdDesc(User requestedUser,
+                                                              ScrollPosition position, Limit limit);
 
-    List<Booking> findByRequestedItem(Item requestedItem);
+    Window<Booking> findByRequestedUserAndStatusOrderByStartDescIdDesc(User requestedUser, BookingStatus status,
+                                                                       ScrollPosition position, Limit limit);
 
-    List<Booking> findByRequestedUserAndStatus(User requestedUser, BookingStatus status);
+    Window<Booking> findByRequestedUserAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+            User requestedUser, LocalDateTime start, LocalDateTime end, ScrollPosition position, Limit limit);
 
-    List<Booking> findByRequestedItemAndStatus(Item requestedItem, BookingStatus status);
+    Window<Booking> findByRequestedUserAndStartBeforeAndEndBeforeOrderByStartDescIdDesc(
+            User requestedUser, LocalDateTime start, LocalDateTime end, ScrollPosition position, Limit limit);
+
+    Window<Booking> findByRequestedUserAndStartAfterAndEndAfterOrderByStartDescIdDesc(
+            User requestedUser, LocalDateTime start, LocalDateTime end, ScrollPosition position, Limit limit);
+
+    List<Booking> findByRequestedItemOrderByStartDesc(Item requestedItem);
+
+    List<Booking> findByRequestedItemAndStatusOrderByStartDesc(Item requestedItem, BookingStatus status);
+
+    List<Booking> findByRequestedItemAndStartBeforeAndEndAfterOrderByStartDesc(Item requestedItem,
+                                                                               LocalDateTime start, LocalDateTime end);
+
+    List<Booking> findByRequestedItemAndStartBeforeAndEndBeforeOrderByStartDesc(Item requestedItem,
+                                                                                LocalDateTime start, LocalDateTime end);
+
+    List<Booking> findByRequestedItemAndStartAfterAndEndAfterOrderByStartDesc(Item requestedItem,
+                                                                              LocalDateTime start, LocalDateTime end);
+
+    @EntityGraph(attributePaths = {"requestedUser", "requestedItem"})
+    Window<Booking> findByRequestedItemOwnerOrderByStartDescIdDesc(User owner, ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"requestedUser", "requestedItem"})
+    Window<Booking> findByRequestedItemOwnerAndStatusOrderByStartDescIdDesc(User owner, BookingStatus status,
+                                                                            ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"requestedUser", "requestedItem"})
+    Window<Booking> findByRequestedItemOwnerAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+            User owner, LocalDateTime start, LocalDateTime end, ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"requestedUser", "requestedItem"})
+    Window<Booking> findByRequestedItemOwnerAndStartBeforeAndEndBeforeOrderByStartDescIdDesc(
+            User owner, LocalDateTime start, LocalDateTime end, ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"requestedUser", "requestedItem"})
+    Window<Booking> findByRequestedItemOwnerAndStartAfterAndEndAfterOrderByStartDescIdDesc(
+            User owner, LocalDateTime start, LocalDateTime end, ScrollPosition position, Limit limit);
 
     Optional<Booking> findById(Long id);
 
+    List<Booking> findByRequestedItemAndStatusAndEndAfterOrderByStartAsc(Item requestedItem, BookingStatus status,
+                                                                         LocalDateTime moment);
+
+    boolean existsByRequestedItemAndStatusAndStartBeforeAndEndAfter(Item requestedItem, BookingStatus status,
+                                                                    LocalDateTime end, LocalDateTime start);
+
+    boolean existsByRequestedItemAndStatusAndStartBeforeAndEndAfterAndIdNot(Item requestedItem, BookingStatus status,
+                                                                            LocalDateTime end, LocalDateTime start,
+                                                                            Long id);
+
+    Optional<Booking> findFirstByRequestedItemAndStartBeforeOrderByStartDesc(Item requestedItem, LocalDateTime now);
+
+    Optional<Booking> findFirstByRequestedItemAndStartAfterOrderByStartAsc(Item requestedItem, LocalDateTime now);
+
+    @EntityGraph(attributePaths = {"requestedUser", "requestedItem"})
+    @Query("select b from Booking b where b.requestedItem in :items and b.start = " +
+            "(select max(lb.start) from Booking lb where lb.requestedItem = b.requestedItem and lb.start < :now)")
+    List<Booking> findLastBookingsOfItems(@Param("items") Collection<Item> items, @Param("now") LocalDateTime now);
+
+    @EntityGraph(attributePaths = {"requestedUser", "requestedItem"})
+    @Query("select b from Booking b where b.requestedItem in :items and b.start = " +
+            "(select min(nb.start) from Booking nb where nb.requestedItem = b.requestedItem and nb.start > :now)")
+    List<Booking> findNextBookingsOfItems(@Param("items") Collection<Item> items, @Param("now") LocalDateTime now);
+
 }
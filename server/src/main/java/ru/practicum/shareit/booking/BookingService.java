@@ -6,13 +6,37 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingFilter;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface BookingService {
 
-    List<BookingResponseDto> getAllUserBookings(Long requestedUserId, BookingFilter existFilter);
+    /**
+     * Получить страницу бронирований пользователя, отсортированных по дате начала от более новых к более старым.
+     * Страница начинается сразу после бронирования, заданного курсором (afterStart, afterId).
+     * Если курсор не передан - возвращается первая страница
+     *
+     * @param requestedUserId идентификатор пользователя, бронирования которого нужно получить
+     * @param existFilter     условие фильтрации бронирований
+     * @param afterStart      дата начала последнего бронирования предыдущей страницы
+     * @param afterId         идентификатор последнего бронирования предыдущей страницы
+     * @param size            максимальное количество бронирований на странице
+     */
+    List<BookingResponseDto> getAllUserBookings(Long requestedUserId, BookingFilter existFilter,
+                                                LocalDateTime afterStart, Long afterId, int size);
 
-    List<BookingResponseDto> getAllItemBookings(Long ownerId, BookingFilter existFilter);
+    /**
+     * Получить страницу бронирований всех вещей владельца, отсортированных по дате начала от более новых к более старым.
+     * Постраничный вывод устроен так же, как в {@link #getAllUserBookings}
+     *
+     * @param ownerId     идентификатор владельца вещей
+     * @param existFilter условие фильтрации бронирований
+     * @param afterStart  дата начала последнего бронирования предыдущей страницы
+     * @param afterId     идентификатор последнего бронирования предыдущей страницы
+     * @param size        максимальное количество бронирований на странице
+     */
+    List<BookingResponseDto> getAllItemBookings(Long ownerId, BookingFilter existFilter,
+                                                LocalDateTime afterStart, Long afterId, int size);
 
     BookingResponseDto getBookingById(Long userId, Long bookingId);
 
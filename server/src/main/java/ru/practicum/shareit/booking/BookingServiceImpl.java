@@ -2,28 +2,37 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingFilter;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.errors.BookingOverlapException;
+import ru.practicum.shareit.errors.BookingUpdateConflictException;
 import ru.practicum.shareit.errors.ForbidenForUserOperationException;
 import ru.practicum.shareit.errors.NotFoundException;
-import ru.practicum.shareit.errors.ParameterNotValidException;
 import ru.practicum.shareit.errors.ValidationException;
-import ru.practicum.shareit.item.CommentMapper;
-import ru.practicum.shareit.item.CommentRepository;
-import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemAvailabilityCalendar;
+import ru.practicum.shareit.item.ItemEnricher;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.KeysetPages;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -33,53 +42,85 @@ public class BookingServiceImpl implements BookingService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
-    private final CommentRepository commentRepository;
-    private final ItemMapper itemMapper;
     private final UserMapper userMapper;
     private final BookingMapper bookingMapper;
-    private final CommentMapper commentMapper;
+    private final ItemEnricher itemEnricher;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemAvailabilityCalendar itemAvailabilityCalendar;
+
+    private static final int MAX_APPROVE_ATTEMPTS = 3;
 
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingResponseDto> getAllUserBookings(Long requestedUserId, BookingFilter existFilter) {
+    public List<BookingResponseDto> getAllUserBookings(Long requestedUserId, BookingFilter existFilter,
+                                                       LocalDateTime afterStart, Long afterId, int size) {
         User existRequestedUser = isUserExist(requestedUserId);
         log.info("Запрос всех бронирований пользователя {}", existRequestedUser.getName());
 
-        List<Booking> userBookings = bookingRepository.findByRequestedUser(existRequestedUser);
-        List<Booking> result;
+        ScrollPosition position = getScrollPosition(afterStart, afterId);
+        Limit limit = KeysetPages.limit(size);
+        LocalDateTime now = LocalDateTime.now();
+        Window<Booking> result;
         switch (existFilter) {
             case ALL:
-                result = userBookings;
+                result = bookingRepository.findByRequestedUserOrderByStartDescIdDesc(existRequestedUser, position, limit);
+                break;
+            case CURRENT:
+                result = bookingRepository.findByRequestedUserAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                        existRequestedUser, now, now, position, limit);
                 break;
-            case CURRENT, PAST, FUTURE:
-                result = filterBookingsByTimeFilter(userBookings, existFilter);
+            case PAST:
+                result = bookingRepository.findByRequestedUserAndStartBeforeAndEndBeforeOrderByStartDescIdDesc(
+                        existRequestedUser, now, now, position, limit);
+                break;
+            case FUTURE:
+                result = bookingRepository.findByRequestedUserAndStartAfterAndEndAfterOrderByStartDescIdDesc(
+                        existRequestedUser, now, now, position, limit);
                 break;
             default:
                 BookingStatus status = BookingStatus.valueOf(existFilter.name());
-                result = bookingRepository.findByRequestedUserAndStatus(existRequestedUser, status);
+                result = bookingRepository.findByRequestedUserAndStatusOrderByStartDescIdDesc(existRequestedUser, status,
+                        position, limit);
         }
-        return result.stream()
-                .map(b -> getBookingResponse(b, false))
-                .toList();
+        return getBookingResponses(result.getContent(), false);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingResponseDto> getAllItemBookings(Long ownerId, BookingFilter existFilter) {
+    public List<BookingResponseDto> getAllItemBookings(Long ownerId, BookingFilter existFilter,
+                                                       LocalDateTime afterStart, Long afterId, int size) {
         User owner = isUserExist(ownerId);
-        log.info("Запрос всех вещей, которыми владеет пользователь с id = {}", ownerId);
-        List<Item> ownersItems = itemRepository.findByOwner(owner);
-        if (ownersItems.isEmpty()) {
+        if (!itemRepository.existsByOwner(owner)) {
             throw new NotFoundException("Пользователь с id = " + ownerId + " не является владельцем ни для одной вещи");
-        } else {
-            List<Booking> result = new ArrayList<>();
-            for (Item ownerItem : ownersItems) {
-                log.info("Запрос бронирований вещи {}", ownerItem.getName());
-                result.addAll(getItemAllBookings(ownerItem, existFilter));
-            }
-            return result.stream().map(b -> getBookingResponse(b, true)).toList();
         }
+        log.info("Запрос бронирований всех вещей, которыми владеет пользователь с id = {}", ownerId);
+        ScrollPosition position = getScrollPosition(afterStart, afterId);
+        Limit limit = KeysetPages.limit(size);
+        LocalDateTime now = LocalDateTime.now();
+        Window<Booking> result;
+        switch (existFilter) {
+            case ALL:
+                result = bookingRepository.findByRequestedItemOwnerOrderByStartDescIdDesc(owner, position, limit);
+                break;
+            case CURRENT:
+                result = bookingRepository.findByRequestedItemOwnerAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                        owner, now, now, position, limit);
+                break;
+            case PAST:
+                result = bookingRepository.findByRequestedItemOwnerAndStartBeforeAndEndBeforeOrderByStartDescIdDesc(
+                        owner, now, now, position, limit);
+                break;
+            case FUTURE:
+                result = bookingRepository.findByRequestedItemOwnerAndStartAfterAndEndAfterOrderByStartDescIdDesc(
+                        owner, now, now, position, limit);
+                break;
+            default:
+                BookingStatus status = BookingStatus.valueOf(existFilter.name());
+                result = bookingRepository.findByRequestedItemOwnerAndStatusOrderByStartDescIdDesc(owner, status,
+                        position, limit);
+        }
+        return getBookingResponses(result.getContent(), true);
     }
 
     @Override
@@ -113,6 +154,7 @@ public class BookingServiceImpl implements BookingService {
         } else {
             log.info("Пользователь с id = {} существует", userId);
             Item requestedItem = isBookingRequestValid(newBooking);
+            checkBookingOverlap(requestedItem, newBooking.getStart(), newBooking.getEnd(), null);
             Booking booking = bookingMapper.bookingRequestDtoToBooking(newBooking, requestedItem);
             booking.setRequestedUser(requestedUser.get());
             booking.setStatus(BookingStatus.WAITING);
@@ -120,66 +162,93 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    /**
+     * Подтверждение/отклонение выполняется в отдельной транзакции на каждую попытку.
+     * Решение принимается только по бронированию в статусе WAITING, иначе возвращается конфликт.
+     * Если бронирование было изменено параллельным запросом (не совпала версия), попытка повторяется
+     * не более MAX_APPROVE_ATTEMPTS раз на свежих данных: если параллельный запрос уже принял решение,
+     * повторная попытка завершится конфликтом, а не перезапишет это решение
+     */
     @Override
-    @Transactional
     public BookingResponseDto approveBooking(Long userId, Long bookingId, boolean approved) {
         log.info("Получен запрос на подтверждение/отклонение бронирования с id = {}", bookingId);
-        Optional<Booking> booking = bookingRepository.findById(bookingId);
-        if (booking.isEmpty()) {
-            throw new NotFoundException("Бронирование с id = " + bookingId + " не найдено");
-        } else {
-            if (!userId.equals(booking.get().getRequestedItem().getOwner().getId())) {
-                throw new ForbidenForUserOperationException("Пользователь с id = " + userId + " не может одобрить/отклонить " +
-                        "запрос на бронирование вещи " + booking.get().getRequestedItem().getName() +
-                        " т.к. не является владельцем данной вещи");
-            } else {
-                if (approved) {
-                    booking.get().setStatus(BookingStatus.APPROVED);
-                } else {
-                    booking.get().setStatus(BookingStatus.REJECTED);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                BookingResponseDto response = transactionTemplate.execute(
+                        status -> changeBookingStatus(userId, bookingId, approved));
+                itemAvailabilityCalendar.updateBooking(response.getItem().getId(), response.getId(),
+                        response.getStart(), response.getEnd(), response.getStatus());
+                return response;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= MAX_APPROVE_ATTEMPTS) {
+                    throw new BookingUpdateConflictException("Бронирование с id = " + bookingId + " было изменено " +
+                            "параллельным запросом, повторите попытку позже");
                 }
-                return Optional.of(bookingRepository.save(booking.get()))
-                        .map(b -> getBookingResponse(b, false)).get();
+                log.warn("Бронирование с id = {} было изменено параллельным запросом, попытка {} из {}",
+                        bookingId, attempt, MAX_APPROVE_ATTEMPTS);
             }
         }
     }
 
     @Override
     public List<Booking> getItemAllBookings(Item item, BookingFilter filter) {
-        List<Booking> itemBookings = bookingRepository.findByRequestedItem(item);
+        LocalDateTime now = LocalDateTime.now();
         switch (filter) {
             case ALL:
-                return itemBookings;
-            case CURRENT, PAST, FUTURE:
-                filterBookingsByTimeFilter(itemBookings, filter);
+                return bookingRepository.findByRequestedItemOrderByStartDesc(item);
+            case CURRENT:
+                return bookingRepository.findByRequestedItemAndStartBeforeAndEndAfterOrderByStartDesc(item, now, now);
+            case PAST:
+                return bookingRepository.findByRequestedItemAndStartBeforeAndEndBeforeOrderByStartDesc(item, now, now);
+            case FUTURE:
+                return bookingRepository.findByRequestedItemAndStartAfterAndEndAfterOrderByStartDesc(item, now, now);
             default:
                 BookingStatus state = BookingStatus.valueOf(filter.name());
-                return bookingRepository.findByRequestedItemAndStatus(item, state);
+                return bookingRepository.findByRequestedItemAndStatusOrderByStartDesc(item, state);
         }
     }
 
     @Override
     public Booking findLastItemBooking(Item item) {
-        List<Booking> itemBookings = bookingRepository.findByRequestedItem(item);
-        LocalDateTime now = LocalDateTime.now();
-        return itemBookings.stream()
-                .filter(b -> now.isAfter(b.getStart()))
-                .min(Collections.reverseOrder())
+        return bookingRepository.findFirstByRequestedItemAndStartBeforeOrderByStartDesc(item, LocalDateTime.now())
                 .orElse(null);
     }
 
     @Override
     public Booking findNextItemBooking(Item item) {
-        List<Booking> itemBookings = bookingRepository.findByRequestedItem(item);
-        LocalDateTime now = LocalDateTime.now();
-        return itemBookings.stream()
-                .filter(b -> now.isBefore(b.getStart()))
-                .sorted()
-                .findFirst()
+        return bookingRepository.findFirstByRequestedItemAndStartAfterOrderByStartAsc(item, LocalDateTime.now())
                 .orElse(null);
     }
 
 
+    private BookingResponseDto changeBookingStatus(Long userId, Long bookingId, boolean approved) {
+        Optional<Booking> booking = bookingRepository.findById(bookingId);
+        if (booking.isEmpty()) {
+            throw new NotFoundException("Бронирование с id = " + bookingId + " не найдено");
+        } else {
+            if (!userId.equals(booking.get().getRequestedItem().getOwner().getId())) {
+                throw new ForbidenForUserOperationException("Пользователь с id = " + userId + " не может одобрить/отклонить " +
+                        "запрос на бронирование вещи " + booking.get().getRequestedItem().getName() +
+                        " т.к. не является владельцем данной вещи");
+            } else {
+                if (booking.get().getStatus() != BookingStatus.WAITING) {
+                    throw new BookingUpdateConflictException("Бронирование с id = " + bookingId + " уже " +
+                            (booking.get().getStatus() == BookingStatus.APPROVED ? "подтверждено" : "отклонено") +
+                            ", повторное решение по нему невозможно");
+                }
+                if (approved) {
+                    Item lockedItem = itemRepository.findByIdForUpdate(booking.get().getRequestedItem().getId()).get();
+                    checkBookingOverlap(lockedItem, booking.get().getStart(), booking.get().getEnd(), bookingId);
+                    booking.get().setStatus(BookingStatus.APPROVED);
+                } else {
+                    booking.get().setStatus(BookingStatus.REJECTED);
+                }
+                return Optional.of(bookingRepository.saveAndFlush(booking.get()))
+                        .map(b -> getBookingResponse(b, false)).get();
+            }
+        }
+    }
+
     private User isUserExist(Long userId) {
         Optional<User> owner = userRepository.findById(userId);
         if (owner.isEmpty()) {
@@ -190,6 +259,17 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    /**
+     * Сформировать позицию для постраничного вывода бронирований по ключу (дата начала, идентификатор)
+     *
+     * @param afterStart дата начала последнего бронирования предыдущей страницы
+     * @param afterId    идентификатор последнего бронирования предыдущей страницы
+     */
+    private ScrollPosition getScrollPosition(LocalDateTime afterStart, Long afterId) {
+        return KeysetPages.position("start", afterStart, afterId, "Для перехода к следующей странице " +
+                "бронирований необходимо указать и дату начала, и идентификатор последнего полученного бронирования");
+    }
+
     private Item isBookingRequestValid(BookingRequestDto newBooking) {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime start = newBooking.getStart();
@@ -213,6 +293,29 @@ public class BookingServiceImpl implements BookingService {
         return requestedItem.get();
     }
 
+    /**
+     * Проверить, что интервал бронирования не пересекается с уже подтверждёнными бронированиями вещи.
+     * Проверка выполняется одним запросом по индексу (item_id, status, reserve_end).
+     * При подтверждении бронирования строка вещи предварительно блокируется, поэтому параллельные
+     * подтверждения пересекающихся бронирований одной вещи выполняются последовательно
+     *
+     * @param item             бронируемая вещь
+     * @param start            дата начала проверяемого бронирования
+     * @param end              дата конца проверяемого бронирования
+     * @param checkedBookingId идентификатор проверяемого бронирования, если оно уже сохранено, иначе null
+     */
+    private void checkBookingOverlap(Item item, LocalDateTime start, LocalDateTime end, Long checkedBookingId) {
+        boolean isOverlapped = checkedBookingId == null
+                ? bookingRepository.existsByRequestedItemAndStatusAndStartBeforeAndEndAfter(
+                        item, BookingStatus.APPROVED, end, start)
+                : bookingRepository.existsByRequestedItemAndStatusAndStartBeforeAndEndAfterAndIdNot(
+                        item, BookingStatus.APPROVED, end, start, checkedBookingId);
+        if (isOverlapped) {
+            throw new BookingOverlapException("Вещь " + item.getName() + " уже забронирована на период с " +
+                    start + " по " + end);
+        }
+    }
+
     /**
      * Сформировать DTO бронирования, возвращаемое в ответ на запрос.
      * Поля, содержащие информацию о последнем и ближайшем следующем бронировании вещи
@@ -222,42 +325,30 @@ public class BookingServiceImpl implements BookingService {
      * @param isOwnerResponse является ли пользователь, запрашивающий информацию о бронировании, владельцем бронируемой вещи
      */
     private BookingResponseDto getBookingResponse(Booking booking, boolean isOwnerResponse) {
-        Item requestedItem = booking.getRequestedItem();
         return bookingMapper.bookingToBookingResponseDto(booking,
                 userMapper.userToUserDto(booking.getRequestedUser()),
-                itemMapper.itemToItemDto(requestedItem, findLastItemBooking(requestedItem),
-                        findNextItemBooking(requestedItem),
-                        commentRepository.findByCommentedItem(requestedItem).stream().map(commentMapper::commentToCommentDto).toList(),
-                        isOwnerResponse));
+                itemEnricher.enrich(booking.getRequestedItem(), isOwnerResponse));
     }
 
     /**
-     * Отфильтровать список бронирований относительно текущего момента времени
+     * Сформировать DTO для списка бронирований.
+     * Информация о вещах загружается одним пакетом для всех различных вещей из списка
      *
-     * @param bookingList список бронирований, который нужно отфильтровать
-     * @param timeFilter  каким образом выполнить фильтрацию
+     * @param bookings        обрабатываемые бронирования
+     * @param isOwnerResponse является ли пользователь, запрашивающий информацию о бронированиях, владельцем бронируемых вещей
      */
-    private List<Booking> filterBookingsByTimeFilter(List<Booking> bookingList, BookingFilter timeFilter) {
-        LocalDateTime now = LocalDateTime.now();
-        switch (timeFilter) {
-            case CURRENT:
-                return bookingList.stream()
-                        .filter(b -> now.isAfter(b.getStart()))
-                        .filter(b -> now.isBefore(b.getEnd()))
-                        .toList();
-            case PAST:
-                return bookingList.stream()
-                        .filter(b -> now.isAfter(b.getStart()))
-                        .filter(b -> now.isAfter(b.getEnd()))
-                        .toList();
-            case FUTURE:
-                return bookingList.stream()
-                        .filter(b -> now.isBefore(b.getStart()))
-                        .filter(b -> now.isBefore(b.getEnd()))
-                        .toList();
-            default:
-                throw new ParameterNotValidException("Передан некорректный фильтр бронирования");
-        }
+    private List<BookingResponseDto> getBookingResponses(List<Booking> bookings, boolean isOwnerResponse) {
+        Collection<Item> requestedItems = bookings.stream()
+                .map(Booking::getRequestedItem)
+                .collect(Collectors.toMap(Item::getId, Function.identity(), (first, second) -> first, LinkedHashMap::new))
+                .values();
+        Map<Long, ItemDto> itemDtos = itemEnricher.enrich(requestedItems, isOwnerResponse).stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+        return bookings.stream()
+                .map(b -> bookingMapper.bookingToBookingResponseDto(b,
+                        userMapper.userToUserDto(b.getRequestedUser()),
+                        itemDtos.get(b.getRequestedItem().getId())))
+                .toList();
     }
 
 }
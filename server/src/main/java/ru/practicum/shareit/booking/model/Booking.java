@@ -34,6 +34,10 @@ public class Booking implements Comparable<Booking> {
     @JoinColumn(name = "item_id")
     private Item requestedItem;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Override
     public int compareTo(Booking booking) {
         if (this.getStart().equals(booking.getStart())) {
@@ -0,0 +1,305 @@
+package ru.practicum.shareit.dataset;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генератор синтетических данных для нагрузочного тестирования и профилирования.
+ * Включается профилем dataset и при запуске приложения заполняет пустую базу (H2 или PostgreSQL)
+ * пользователями, вещами, бронированиями, отзывами и запросами пакетными JDBC-вставками.
+ * Объём данных задаётся свойствами shareit.dataset.*. При одинаковом значении shareit.dataset.seed
+ * генерируются одни и те же данные; даты отсчитываются от начала дня запуска.
+ * Владельцы вещей, бронируемые вещи и вещи с отзывами выбираются по распределению Ципфа:
+ * у небольшого числа пользователей много вещей, а у популярных вещей — длинные цепочки бронирований и отзывов
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@Profile("dataset")
+public class DatasetGenerator implements ApplicationRunner {
+
+    private static final String[] FIRST_NAMES = {"Анна", "Иван", "Мария", "Пётр", "Елена", "Алексей", "Ольга",
+            "Дмитрий", "Наталья", "Сергей", "Татьяна", "Михаил"};
+    private static final String[] ITEM_NAMES = {"Дрель", "Палатка", "Велосипед", "Лестница", "Фотоаппарат", "Пила",
+            "Байдарка", "Штатив", "Проектор", "Гриль", "Молоток", "Дрон", "Гитара", "Самокат", "Спальник", "Рюкзак",
+            "Перфоратор", "Шуруповёрт", "Сноуборд", "Лыжи", "Мангал", "Удочка", "Микроскоп", "Телескоп"};
+    private static final String[] BRANDS = {"Bosch", "Makita", "Stern", "Canon", "Nikon", "Epson", "Weber",
+            "DJI", "Yamaha", "Xiaomi", "Salomon", "Levenhuk"};
+    private static final String[] WORDS = {"почти", "новый", "лёгкий", "мощный", "складной", "аккумуляторный",
+            "походный", "цифровой", "удобный", "надёжный", "компактный", "с", "зарядкой", "чехлом", "набором",
+            "насадок", "для", "дачи", "ремонта", "путешествий", "съёмки", "рыбалки", "отдыха", "спорта", "и",
+            "отлично", "работает", "аренда", "на", "выходные", "быстро", "вернул", "рекомендую", "спасибо",
+            "владельцу", "всё", "понравилось", "нужен", "ищу", "срочно", "неделю"};
+
+    private static final String INSERT_USER = "INSERT INTO users (id, name, email) VALUES (?, ?, ?)";
+    private static final String INSERT_ITEM =
+            "INSERT INTO items (id, name, description, is_available, owner_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_BOOKING = "INSERT INTO bookings (id, status, reserve_start, reserve_end, "
+            + "version, user_id, item_id) VALUES (?, ?, ?, ?, 0, ?, ?)";
+    private static final String INSERT_COMMENT =
+            "INSERT INTO comments (id, text, created_date, user_id, item_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_REQUEST = "INSERT INTO requests (id, description, is_created, user_id, "
+            + "creation_date, item_id) VALUES (?, ?, false, ?, ?, ?)";
+
+    private static final String USERS_SEQUENCE = "users_seq";
+    private static final String ITEMS_SEQUENCE = "items_seq";
+    private static final int SEQUENCE_INCREMENT = 50;
+    private static final int HOURS_IN_YEAR = 365 * 24;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationContext context;
+
+    @Value("${shareit.dataset.seed:42}")
+    private long seed;
+
+    @Value("${shareit.dataset.users:1000}")
+    private int users;
+
+    @Value("${shareit.dataset.items:5000}")
+    private int items;
+
+    @Value("${shareit.dataset.bookings:50000}")
+    private int bookings;
+
+    @Value("${shareit.dataset.comments:20000}")
+    private int comments;
+
+    @Value("${shareit.dataset.requests:2000}")
+    private int requests;
+
+    @Value("${shareit.dataset.owner-skew:1.0}")
+    private double ownerSkew;
+
+    @Value("${shareit.dataset.booking-skew:0.8}")
+    private double bookingSkew;
+
+    @Value("${shareit.dataset.comment-skew:1.2}")
+    private double commentSkew;
+
+    @Value("${shareit.dataset.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${shareit.dataset.exit-after-load:false}")
+    private boolean exitAfterLoad;
+
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (users == 0 && items > 0) {
+            throw new IllegalStateException("Для генерации вещей нужен хотя бы один пользователь");
+        }
+        checkDatabaseIsEmpty();
+        log.info("Генерация данных: пользователей {}, вещей {}, бронирований {}, отзывов {}, запросов {}, seed = {}",
+                users, items, bookings, comments, requests, seed);
+        long startedAt = System.currentTimeMillis();
+        Random random = new Random(seed);
+        LocalDateTime now = LocalDate.now().atStartOfDay();
+        generateUsers(random);
+        int[] itemOwners = generateItems(random);
+        generateBookings(random, now, itemOwners);
+        generateComments(random, now);
+        generateRequests(random, now);
+        restartIdentities();
+        log.info("Генерация данных завершена за {} мс", System.currentTimeMillis() - startedAt);
+        if (exitAfterLoad) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+
+    private void checkDatabaseIsEmpty() {
+        for (String table : List.of("users", "items", "bookings", "comments", "requests")) {
+            Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+            if (rows != null && rows > 0) {
+                throw new IllegalStateException("Генератор данных заполняет только пустую базу, в таблице "
+                        + table + " уже есть записи: " + rows);
+            }
+        }
+    }
+
+    private void generateUsers(Random random) {
+        BatchInserter inserter = new BatchInserter(INSERT_USER);
+        for (long id = 1; id <= users; id++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + id;
+            inserter.add(id, name, "user" + id + "@shareit.test");
+        }
+        inserter.finish("users");
+    }
+
+    /**
+     * @return номера владельцев вещей (с нуля) по номерам вещей (с нуля)
+     */
+    private int[] generateItems(Random random) {
+        ZipfDistribution owners = new ZipfDistribution(users, ownerSkew);
+        int[] itemOwners = new int[items];
+        BatchInserter inserter = new BatchInserter(INSERT_ITEM);
+        for (int i = 0; i < items; i++) {
+            itemOwners[i] = owners.sample(random);
+            String name = ITEM_NAMES[random.nextInt(ITEM_NAMES.length)] + " "
+                    + BRANDS[random.nextInt(BRANDS.length)] + " " + (random.nextInt(900) + 100);
+            boolean available = random.nextInt(10) != 0;
+            inserter.add(i + 1L, name, words(random, 5, 15), available, itemOwners[i] + 1L);
+        }
+        inserter.finish("items");
+        return itemOwners;
+    }
+
+    /**
+     * Бронирования распределены на год назад и два месяца вперёд от начала дня запуска.
+     * Завершившиеся бронирования в основном подтверждены, будущие — в любом статусе
+     */
+    private void generateBookings(Random random, LocalDateTime now, int[] itemOwners) {
+        if (items == 0 || users < 2) {
+            return;
+        }
+        ZipfDistribution popularItems = new ZipfDistribution(items, bookingSkew);
+        BatchInserter inserter = new BatchInserter(INSERT_BOOKING);
+        for (long id = 1; id <= bookings; id++) {
+            int item = popularItems.sample(random);
+            int booker = random.nextInt(users - 1);
+            if (booker >= itemOwners[item]) {
+                booker++;
+            }
+            LocalDateTime start = now.plusHours(random.nextInt(HOURS_IN_YEAR + 60 * 24) - HOURS_IN_YEAR);
+            LocalDateTime end = start.plusHours(random.nextInt(14 * 24) + 2);
+            inserter.add(id, bookingStatus(random, end.isBefore(now)).name(), start, end, booker + 1L, item + 1L);
+        }
+        inserter.finish("bookings");
+    }
+
+    private BookingStatus bookingStatus(Random random, boolean isPast) {
+        int percent = random.nextInt(100);
+        if (isPast) {
+            return percent < 80 ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        }
+        if (percent < 40) {
+            return BookingStatus.WAITING;
+        } else if (percent < 85) {
+            return BookingStatus.APPROVED;
+        } else {
+            return BookingStatus.REJECTED;
+        }
+    }
+
+    private void generateComments(Random random, LocalDateTime now) {
+        if (items == 0 || users == 0) {
+            return;
+        }
+        ZipfDistribution commentedItems = new ZipfDistribution(items, commentSkew);
+        BatchInserter inserter = new BatchInserter(INSERT_COMMENT);
+        for (long id = 1; id <= comments; id++) {
+            LocalDateTime created = now.minusMinutes(random.nextInt(HOURS_IN_YEAR * 60));
+            inserter.add(id, words(random, 3, 30), created, random.nextInt(users) + 1L,
+                    commentedItems.sample(random) + 1L);
+        }
+        inserter.finish("comments");
+    }
+
+    /**
+     * Примерно на половину запросов в ответ уже создана вещь
+     */
+    private void generateRequests(Random random, LocalDateTime now) {
+        if (users == 0) {
+            return;
+        }
+        BatchInserter inserter = new BatchInserter(INSERT_REQUEST);
+        for (long id = 1; id <= requests; id++) {
+            LocalDateTime created = now.minusMinutes(random.nextInt(HOURS_IN_YEAR * 60));
+            Long itemId = items > 0 && random.nextBoolean() ? random.nextInt(items) + 1L : null;
+            inserter.add(id, words(random, 4, 20), random.nextInt(users) + 1L, created, itemId);
+        }
+        inserter.finish("requests");
+    }
+
+    /**
+     * Идентификаторы вставлены явно, поэтому счётчики идентификаторов сдвигаются за последние вставленные значения.
+     * Пользователи и вещи сохраняются через последовательности с шагом выделения 50
+     */
+    private void restartIdentities() {
+        restartIdentity("users", users);
+        restartIdentity("bookings", bookings);
+        restartIdentity("comments", comments);
+        restartIdentity("requests", requests);
+        restartSequence(USERS_SEQUENCE, users);
+        restartSequence(ITEMS_SEQUENCE, items);
+    }
+
+    private void restartIdentity(String table, long lastId) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (lastId + 1));
+    }
+
+    /**
+     * Hibernate берёт из последовательности верхнюю границу блока идентификаторов, поэтому следующий блок
+     * начнётся сразу после lastId
+     */
+    private void restartSequence(String sequence, long lastId) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (lastId + SEQUENCE_INCREMENT));
+    }
+
+    private String words(Random random, int minCount, int maxCount) {
+        int count = minCount + random.nextInt(maxCount - minCount + 1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        text.setCharAt(0, Character.toUpperCase(text.charAt(0)));
+        return text.toString();
+    }
+
+    /**
+     * Накапливает строки и вставляет их пакетами по shareit.dataset.batch-size, каждый пакет — в своей транзакции
+     */
+    private class BatchInserter {
+
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>(batchSize);
+        private long inserted;
+
+        BatchInserter(String sql) {
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void finish(String table) {
+            flush();
+            log.info("В таблицу {} добавлено записей: {}", table, inserted);
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+            inserted += rows.size();
+            rows.clear();
+        }
+
+    }
+
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.dataset;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Распределение Ципфа на номерах 0..size-1: номер k выпадает с вероятностью, пропорциональной 1 / (k + 1)^exponent.
+ * При нулевом показателе распределение равномерное, с ростом показателя всё больше значений приходится на первые номера
+ */
+class ZipfDistribution {
+
+    private final double[] cumulativeWeights;
+
+    ZipfDistribution(int size, double exponent) {
+        cumulativeWeights = new double[size];
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulativeWeights[k] = sum;
+        }
+    }
+
+    int sample(Random random) {
+        double point = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        int index = Arrays.binarySearch(cumulativeWeights, point);
+        return index >= 0 ? index : Math.min(-index - 1, cumulativeWeights.length - 1);
+    }
+
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.errors;
+
+public class BookingUpdateConflictException extends RuntimeException {
+    public BookingUpdateConflictException(String message) {
+        super(message);
+    }
+}
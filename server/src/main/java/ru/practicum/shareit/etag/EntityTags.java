@@ -0,0 +1,88 @@
+package ru.practicum.shareit.etag;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.List;
+
+/**
+ * Формирование ETag ресурсов по идентификаторам и версиям их строк в базе.
+ * Версия строки увеличивается при каждом изменении данных, входящих в представление ресурса, поэтому совпадение
+ * ETag означает совпадение ответа и сервер может ответить 304 без загрузки связанных данных.
+ * Версии увеличиваются отдельным запросом update (incrementVersion в репозиториях), поэтому поля version
+ * сущностей не записываются при их сохранении, а начальное значение задаётся в схеме базы.
+ * ETag зависит только от данных базы, поэтому одинаков на всех экземплярах сервера и не меняется при перезапуске.
+ * В ETag входит также случайное значение, однажды сохранённое в таблице etag_seed: если базу пересоздать,
+ * идентификаторы и версии строк начнутся заново, и без него ETag нового ресурса мог бы совпасть с ETag удалённого
+ */
+@Component
+@Slf4j
+public class EntityTags {
+
+    private static final int SEED_ID = 1;
+
+    private final String seed;
+
+    @Autowired
+    public EntityTags(JdbcTemplate jdbcTemplate) {
+        this(loadSeed(jdbcTemplate));
+    }
+
+    public EntityTags(String seed) {
+        this.seed = seed;
+    }
+
+
+    /**
+     * @param id      идентификатор ресурса
+     * @param version версия строки ресурса, null — если ресурс не найден
+     * @return ETag без кавычек или null, если ресурс не найден
+     */
+    public String of(Long id, Long version) {
+        return version == null ? null : seed + "-" + id + "." + version;
+    }
+
+    /**
+     * ETag ресурса, в представление которого входит связанная сущность со своей версией.
+     * Идентификатор связанной сущности входит в ETag, чтобы замена её другой сущностью меняла ETag,
+     * даже если версии совпадают
+     *
+     * @param id             идентификатор ресурса
+     * @param version        версия строки ресурса, null — если ресурс не найден
+     * @param relatedId      идентификатор связанной сущности, null — если её нет
+     * @param relatedVersion версия строки связанной сущности
+     * @return ETag без кавычек или null, если ресурс не найден
+     */
+    public String of(Long id, Long version, Long relatedId, Long relatedVersion) {
+        if (version == null || relatedId == null) {
+            return of(id, version);
+        }
+        return of(id, version) + "-" + relatedId + "." + relatedVersion;
+    }
+
+
+    /**
+     * Значение создаёт первый запущенный с этой базой экземпляр сервера; если экземпляры запускаются одновременно,
+     * сохраняется значение одного из них, а остальные читают его
+     */
+    private static String loadSeed(JdbcTemplate jdbcTemplate) {
+        String sql = "select seed from etag_seed where id = ?";
+        List<String> seeds = jdbcTemplate.queryForList(sql, String.class, SEED_ID);
+        if (seeds.isEmpty()) {
+            String seed = Long.toString(new SecureRandom().nextLong() >>> 1, Character.MAX_RADIX);
+            try {
+                jdbcTemplate.update("insert into etag_seed (id, seed) values (?, ?)", SEED_ID, seed);
+                log.info("Создано начальное значение ETag для базы: {}", seed);
+            } catch (DuplicateKeyException e) {
+                log.info("Начальное значение ETag уже создано другим экземпляром сервера");
+            }
+            seeds = jdbcTemplate.queryForList(sql, String.class, SEED_ID);
+        }
+        return seeds.get(0);
+    }
+
+}
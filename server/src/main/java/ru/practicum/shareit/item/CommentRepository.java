@@ -1,10 +1,12 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +14,7 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     List<Comment> findByCommentedItem(Item item);
 
+    @EntityGraph(attributePaths = {"authorName", "commentedItem"})
+    List<Comment> findByCommentedItemIn(Collection<Item> items);
+
 }
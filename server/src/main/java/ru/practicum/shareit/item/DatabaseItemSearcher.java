@@ -0,0 +1,52 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Поиск вещей одним запросом к базе.
+ * На PostgreSQL условия поиска по подстроке обслуживаются GIN-индексами pg_trgm по lower(name)
+ * и lower(description), которые создаются скриптом schema-postgresql.sql
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.mode", havingValue = "database")
+public class DatabaseItemSearcher implements ItemSearcher {
+
+    private final ItemRepository itemRepository;
+
+
+    @Override
+    public List<Item> search(String text) {
+        log.info("Поиск вещей в базе по запросу: {}", text);
+        return itemRepository.searchAvailable(text);
+    }
+
+    @Override
+    public String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public boolean matches(String normalizedText, Item item) {
+        return Boolean.TRUE.equals(item.getAvailable())
+                && (item.getName().toLowerCase(Locale.ROOT).contains(normalizedText)
+                || item.getDescription().toLowerCase(Locale.ROOT).contains(normalizedText));
+    }
+
+    @Override
+    public void update(Item item) {
+    }
+
+    @Override
+    public void clear() {
+    }
+
+}
@@ -0,0 +1,236 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Календари занятости вещей.
+ * Для каждой вещи хранятся отсортированные по дате начала массивы интервалов подтверждённых бронирований.
+ * Календарь вещи загружается из базы одним запросом при первом обращении, а затем поддерживается
+ * инкрементально при изменении статуса бронирований, поэтому поиск свободных интервалов
+ * не обращается к таблице бронирований.
+ * Инкрементально учитываются только решения по бронированиям, принятые этим экземпляром сервера.
+ * Подтверждение на другом экземпляре попадает в календарь лишь при его повторной загрузке, поэтому при нескольких
+ * экземплярах сервера занятый интервал может показываться свободным не дольше shareit.availability.cache.ttl
+ * после подтверждения: срок отсчитывается от загрузки календаря из базы. Окончательная проверка пересечений
+ * выполняется базой при подтверждении бронирования, календарь служит только для показа.
+ * Число календарей ограничено shareit.availability.cache.max-size
+ */
+@Component
+@Slf4j
+public class ItemAvailabilityCalendar {
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, Calendar> calendars;
+    private final AtomicLong updateCount = new AtomicLong();
+
+    public ItemAvailabilityCalendar(BookingRepository bookingRepository,
+                                    @Value("${shareit.availability.cache.max-size:10000}") long maxSize,
+                                    @Value("${shareit.availability.cache.ttl:1m}") Duration ttl) {
+        this.bookingRepository = bookingRepository;
+        this.calendars = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new LoadedCalendarExpiry(ttl))
+                .build();
+    }
+
+
+    /**
+     * Получить свободные интервалы вещи в заданном периоде
+     *
+     * @param item вещь
+     * @param from начало периода
+     * @param to   конец периода
+     */
+    public List<FreeSlotDto> getFreeSlots(Item item, LocalDateTime from, LocalDateTime to) {
+        Calendar calendar = calendars.getIfPresent(item.getId());
+        if (calendar == null) {
+            calendar = loadCalendar(item);
+        }
+        return calendar.getFreeSlots(from, to);
+    }
+
+    /**
+     * Учесть изменение статуса бронирования. Календарь обновляется, только если он уже загружен:
+     * иначе актуальное состояние будет прочитано из базы при первом обращении
+     *
+     * @param itemId    идентификатор забронированной вещи
+     * @param bookingId идентификатор бронирования
+     * @param start     дата начала бронирования
+     * @param end       дата конца бронирования
+     * @param status    новый статус бронирования
+     */
+    public void updateBooking(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end,
+                              BookingStatus status) {
+        updateCount.incrementAndGet();
+        calendars.asMap().computeIfPresent(itemId, (id, calendar) -> status == BookingStatus.APPROVED
+                ? calendar.withBooking(bookingId, start, end)
+                : calendar.withoutBooking(bookingId));
+    }
+
+    /**
+     * Сбросить все календари, например после удаления вещей
+     */
+    public void clear() {
+        updateCount.incrementAndGet();
+        calendars.invalidateAll();
+    }
+
+
+    /**
+     * Календарь читается из базы вне блокировки словаря календарей, чтобы поток не удерживал её на время запроса
+     * (виртуальный поток, ожидающий ответа базы внутри synchronized-блока словаря кэша, занимал бы
+     * поток-носитель). Загруженный календарь сохраняется, только если за время загрузки не изменялось
+     * ни одно бронирование: иначе изменение могло не попасть ни в прочитанные данные, ни в календарь
+     */
+    private Calendar loadCalendar(Item item) {
+        log.info("Загрузка календаря занятости вещи с id = {}", item.getId());
+        long updatesBeforeLoad = updateCount.get();
+        List<Booking> bookings = bookingRepository.findByRequestedItemAndStatusAndEndAfterOrderByStartAsc(
+                item, BookingStatus.APPROVED, LocalDateTime.now());
+        Calendar calendar = Calendar.EMPTY;
+        for (Booking booking : bookings) {
+            calendar = calendar.withBooking(booking.getId(), booking.getStart(), booking.getEnd());
+        }
+        Calendar loaded = calendar;
+        calendars.asMap().compute(item.getId(),
+                (id, existing) -> existing != null || updateCount.get() != updatesBeforeLoad ? existing : loaded);
+        return calendar;
+    }
+
+
+    /**
+     * Срок жизни календаря отсчитывается от его загрузки из базы: инкрементальные обновления его не продлевают,
+     * иначе календарь часто бронируемой вещи не перечитывался бы и не получал решений других экземпляров сервера
+     */
+    private record LoadedCalendarExpiry(Duration ttl) implements Expiry<Long, Calendar> {
+
+        @Override
+        public long expireAfterCreate(Long itemId, Calendar calendar, long currentTime) {
+            return ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long itemId, Calendar calendar, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(Long itemId, Calendar calendar, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+    /**
+     * Неизменяемый календарь одной вещи. Массивы отсортированы по дате начала бронирования;
+     * maxEnds[i] — наибольшая дата конца среди первых i + 1 бронирований, по нему бинарным поиском
+     * находится первое бронирование, которое может пересекаться с началом запрошенного периода
+     */
+    private static final class Calendar {
+
+        private static final Calendar EMPTY = new Calendar(new long[0], new LocalDateTime[0], new LocalDateTime[0]);
+
+        private final long[] bookingIds;
+        private final LocalDateTime[] starts;
+        private final LocalDateTime[] ends;
+        private final LocalDateTime[] maxEnds;
+
+        private Calendar(long[] bookingIds, LocalDateTime[] starts, LocalDateTime[] ends) {
+            this.bookingIds = bookingIds;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = new LocalDateTime[ends.length];
+            for (int i = 0; i < ends.length; i++) {
+                maxEnds[i] = i == 0 || ends[i].isAfter(maxEnds[i - 1]) ? ends[i] : maxEnds[i - 1];
+            }
+        }
+
+        private Calendar withBooking(long bookingId, LocalDateTime start, LocalDateTime end) {
+            Calendar calendar = withoutBooking(bookingId);
+            int n = calendar.starts.length;
+            int position = 0;
+            while (position < n && !calendar.starts[position].isAfter(start)) {
+                position++;
+            }
+            long[] newIds = new long[n + 1];
+            LocalDateTime[] newStarts = new LocalDateTime[n + 1];
+            LocalDateTime[] newEnds = new LocalDateTime[n + 1];
+            System.arraycopy(calendar.bookingIds, 0, newIds, 0, position);
+            System.arraycopy(calendar.starts, 0, newStarts, 0, position);
+            System.arraycopy(calendar.ends, 0, newEnds, 0, position);
+            newIds[position] = bookingId;
+            newStarts[position] = start;
+            newEnds[position] = end;
+            System.arraycopy(calendar.bookingIds, position, newIds, position + 1, n - position);
+            System.arraycopy(calendar.starts, position, newStarts, position + 1, n - position);
+            System.arraycopy(calendar.ends, position, newEnds, position + 1, n - position);
+            return new Calendar(newIds, newStarts, newEnds);
+        }
+
+        private Calendar withoutBooking(long bookingId) {
+            int position = -1;
+            for (int i = 0; i < bookingIds.length; i++) {
+                if (bookingIds[i] == bookingId) {
+                    position = i;
+                    break;
+                }
+            }
+            if (position < 0) {
+                return this;
+            }
+            int n = bookingIds.length;
+            long[] newIds = new long[n - 1];
+            LocalDateTime[] newStarts = new LocalDateTime[n - 1];
+            LocalDateTime[] newEnds = new LocalDateTime[n - 1];
+            System.arraycopy(bookingIds, 0, newIds, 0, position);
+            System.arraycopy(starts, 0, newStarts, 0, position);
+            System.arraycopy(ends, 0, newEnds, 0, position);
+            System.arraycopy(bookingIds, position + 1, newIds, position, n - position - 1);
+            System.arraycopy(starts, position + 1, newStarts, position, n - position - 1);
+            System.arraycopy(ends, position + 1, newEnds, position, n - position - 1);
+            return new Calendar(newIds, newStarts, newEnds);
+        }
+
+        private List<FreeSlotDto> getFreeSlots(LocalDateTime from, LocalDateTime to) {
+            List<FreeSlotDto> freeSlots = new ArrayList<>();
+            LocalDateTime cursor = from;
+            for (int i = firstEndingAfter(from); i < starts.length && starts[i].isBefore(to); i++) {
+                if (starts[i].isAfter(cursor)) {
+                    freeSlots.add(new FreeSlotDto(cursor, starts[i]));
+                }
+                if (ends[i].isAfter(cursor)) {
+                    cursor = ends[i];
+                }
+            }
+            if (cursor.isBefore(to)) {
+                freeSlots.add(new FreeSlotDto(cursor, to));
+            }
+            return freeSlots;
+        }
+
+        private int firstEndingAfter(LocalDateTime moment) {
+            int index = Arrays.binarySearch(maxEnds, moment);
+            index = index < 0 ? -index - 1 : index + 1;
+            return index;
+        }
+
+    }
+
+}
@@ -1,12 +1,19 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,9 +29,18 @@ public class ItemController {
         return ResponseEntity.ok(itemService.getAllItems(ownerId));
     }
 
+    @GetMapping("/batch")
+    public ResponseEntity<List<ItemDto>> getItemsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(itemService.getItemsByIds(ids));
+    }
+
     @GetMapping("/{itemId}")
-    public ResponseEntity<ItemDto> getItemById(@PathVariable Long itemId) {
-        return ResponseEntity.ok(itemService.getItemById(itemId));
+    public ResponseEntity<ItemDto> getItemById(@PathVariable Long itemId, WebRequest request) {
+        String tag = itemService.getItemTag(itemId);
+        if (tag != null && request.checkNotModified(tag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(tag).body(itemService.getItemById(itemId));
     }
 
     @PostMapping
@@ -33,6 +49,12 @@ public class ItemController {
         return ResponseEntity.status(HttpStatus.CREATED).body(itemService.addItem(newItem, ownerId));
     }
 
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ItemImportResultDto> importItems(InputStream items,
+                                                           @RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        return ResponseEntity.ok(itemService.importItems(items, ownerId));
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<ItemDto> editItem(@PathVariable Long itemId,
                                             @RequestBody ItemDto editedItem,
@@ -45,6 +67,14 @@ public class ItemController {
         return ResponseEntity.ok(itemService.findItems(text));
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<List<FreeSlotDto>> getItemAvailability(
+            @PathVariable Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(itemService.getItemAvailability(itemId, from, to));
+    }
+
     @PostMapping("/{itemId}/comment")
     public ResponseEntity<CommentDto> addComment(@PathVariable Long itemId,
                                                  @RequestBody CommentDto newComment,
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Пакетное формирование DTO вещей.
+ * Последнее и ближайшее следующее бронирования, а также отзывы загружаются сразу для всего набора вещей
+ * фиксированным числом запросов (по одному на каждый вид данных), независимо от количества вещей
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ItemEnricher {
+
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final ItemMapper itemMapper;
+    private final CommentMapper commentMapper;
+
+
+    /**
+     * Сформировать DTO для каждой из переданных вещей. Порядок DTO совпадает с порядком вещей
+     *
+     * @param items   вещи, для которых необходимо сформировать DTO
+     * @param isOwner запрашивает ли информацию владелец вещей (только ему видны последнее и следующее бронирования)
+     */
+    public List<ItemDto> enrich(Collection<Item> items, boolean isOwner) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        log.info("Пакетная загрузка бронирований и отзывов для {} вещей", items.size());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Booking> lastBookings = groupByItemId(bookingRepository.findLastBookingsOfItems(items, now));
+        Map<Long, Booking> nextBookings = groupByItemId(bookingRepository.findNextBookingsOfItems(items, now));
+        Map<Long, List<CommentDto>> comments = commentRepository.findByCommentedItemIn(items).stream()
+                .collect(Collectors.groupingBy(c -> c.getCommentedItem().getId(),
+                        Collectors.mapping(commentMapper::commentToCommentDto, Collectors.toList())));
+        return items.stream()
+                .map(i -> itemMapper.itemToItemDto(i, lastBookings.get(i.getId()), nextBookings.get(i.getId()),
+                        comments.getOrDefault(i.getId(), Collections.emptyList()), isOwner))
+                .toList();
+    }
+
+    /**
+     * Сформировать DTO одной вещи
+     *
+     * @param item    вещь, для которой необходимо сформировать DTO
+     * @param isOwner запрашивает ли информацию владелец вещи
+     */
+    public ItemDto enrich(Item item, boolean isOwner) {
+        return enrich(List.of(item), isOwner).getFirst();
+    }
+
+
+    private Map<Long, Booking> groupByItemId(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(b -> b.getRequestedItem().getId(), Function.identity(), (first, second) -> first));
+    }
+
+}
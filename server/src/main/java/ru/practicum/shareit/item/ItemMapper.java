@@ -28,8 +28,8 @@ public class ItemMapper {
         itemDto.setName(item.getName());
         itemDto.setDescription(item.getDescription());
         itemDto.setAvailable(item.getAvailable());
-        itemDto.setLastBooking(isOwner ? lastBooking.getId() : null);
-        itemDto.setNextBooking(isOwner ? nextBooking.getId() : null);
+        itemDto.setLastBooking(isOwner && lastBooking != null ? lastBooking.getId() : null);
+        itemDto.setNextBooking(isOwner && nextBooking != null ? nextBooking.getId() : null);
         itemDto.setComments(comments);
         return itemDto;
     }
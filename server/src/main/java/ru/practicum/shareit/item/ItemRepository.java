@@ -1,10 +1,16 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,12 +19,41 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findByOwner(User owner);
 
+    boolean existsByOwner(User owner);
+
     Optional<Item> findById(Long id);
 
+    /**
+     * Загрузить вещи вместе с владельцами одним запросом
+     */
+    @Query("select i from Item i join fetch i.owner where i.id in :ids")
+    List<Item> findAllWithOwnerByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("select i.version from Item i where i.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Item i set i.version = i.version + 1 where i.id = :id")
+    void incrementVersion(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Item i set i.version = i.version + 1 " +
+            "where i.id in (select c.commentedItem.id from Comment c where c.authorName.id = :authorId)")
+    void incrementVersionOfCommentedBy(@Param("authorId") Long authorId);
+
     Optional<Item> findByName(String name);
 
-    List<Item> findAllByNameContainingIgnoreCase(String nameSearch);
+    List<Item> findAllByAvailableTrue();
 
-    List<Item> findAllByDescriptionContainingIgnoreCase(String descriptionSearch);
+    @Query("select i from Item i " +
+            "where i.available = true " +
+            "and (lower(i.name) like lower(concat('%', :#{escape(#text)}, '%')) escape :#{escapeCharacter()} " +
+            "or lower(i.description) like lower(concat('%', :#{escape(#text)}, '%')) escape :#{escapeCharacter()}) " +
+            "order by i.id")
+    List<Item> searchAvailable(@Param("text") String text);
 
 }
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов поиска вещей.
+ * Ключ — поисковой запрос, нормализованный используемым способом поиска. Размер кэша и время жизни записей
+ * ограничены свойствами shareit.search.cache.max-size и shareit.search.cache.ttl.
+ * При изменении вещи сбрасываются только те записи, в которые вещь входила или в которые попадёт после изменения.
+ * Сброс выполняется сразу и повторно после фиксации транзакции, чтобы в кэш не попал результат поиска,
+ * прочитанный до фиксации изменений.
+ * Об изменениях вещей на других экземплярах сервера кэш не узнаёт: при поиске по индексу он сбрасывается целиком,
+ * когда периодическое перестроение индекса находит изменения (см. {@link ItemSearchIndexResync}), а при поиске
+ * в базе устаревший результат хранится не дольше shareit.search.cache.ttl.
+ * Статистика попаданий и промахов публикуется в actuator как метрики cache.* с тегом cache=itemSearch.
+ * Изменения счётчика и сброс записей защищены ReentrantLock, а не synchronized: виртуальный поток,
+ * ожидающий входа в synchronized-блок, удерживает поток-носитель
+ */
+@Component
+@Slf4j
+public class ItemSearchCache {
+
+    private final ItemSearcher itemSearcher;
+    private final Cache<String, List<ItemDto>> cache;
+    private final Lock writeLock = new ReentrantLock();
+    private long generation;
+
+    public ItemSearchCache(ItemSearcher itemSearcher,
+                           MeterRegistry meterRegistry,
+                           @Value("${shareit.search.cache.max-size:10000}") long maxSize,
+                           @Value("${shareit.search.cache.ttl:5m}") Duration ttl) {
+        this.itemSearcher = itemSearcher;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "itemSearch");
+    }
+
+
+    /**
+     * Получить результат поиска из кэша или выполнить поиск и сохранить его результат.
+     * Результат не сохраняется, если за время поиска какая-либо вещь была изменена
+     *
+     * @param text   поисковой запрос
+     * @param search выполнение поиска
+     */
+    public List<ItemDto> get(String text, Supplier<List<ItemDto>> search) {
+        String key = itemSearcher.normalize(text);
+        List<ItemDto> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long startGeneration;
+        writeLock.lock();
+        try {
+            startGeneration = generation;
+        } finally {
+            writeLock.unlock();
+        }
+        List<ItemDto> found = List.copyOf(search.get());
+        writeLock.lock();
+        try {
+            if (startGeneration == generation) {
+                cache.put(key, found);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return found;
+    }
+
+    /**
+     * Сбросить записи, на которые влияет добавление или изменение вещи
+     *
+     * @param item вещь в состоянии после изменения
+     */
+    public void evictItem(Item item) {
+        Long itemId = item.getId();
+        evict((key, found) -> containsItem(found, itemId) || itemSearcher.matches(key, item));
+    }
+
+    /**
+     * Сбросить записи, содержащие вещь. Используется при изменении данных вещи, которые не влияют
+     * на попадание в результат поиска (например, отзывов)
+     *
+     * @param itemId идентификатор вещи
+     */
+    public void evictContaining(Long itemId) {
+        evict((key, found) -> containsItem(found, itemId));
+    }
+
+    public void evictAll() {
+        evict((key, found) -> true);
+    }
+
+
+    private void evict(BiPredicate<String, List<ItemDto>> isAffected) {
+        evictNow(isAffected);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(isAffected);
+                }
+            });
+        }
+    }
+
+    private void evictNow(BiPredicate<String, List<ItemDto>> isAffected) {
+        writeLock.lock();
+        try {
+            generation++;
+            cache.asMap().entrySet().removeIf(e -> isAffected.test(e.getKey(), e.getValue()));
+        } finally {
+            writeLock.unlock();
+        }
+        log.debug("Сброшены записи кэша поиска вещей, осталось записей: {}", cache.estimatedSize());
+    }
+
+    private boolean containsItem(List<ItemDto> found, Long itemId) {
+        return found.stream().anyMatch(i -> Objects.equals(i.getId(), itemId));
+    }
+
+}
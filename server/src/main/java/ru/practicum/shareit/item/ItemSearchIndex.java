@@ -0,0 +1,260 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс для поиска вещей по названию и описанию.
+ * Индексируются только доступные для аренды вещи. Текст разбивается на слова в нижнем регистре,
+ * для каждого слова хранится набор вещей, в названии и/или описании которых оно встречается.
+ * Слова хранятся в отсортированном словаре, поэтому слово запроса совпадает со всеми словами,
+ * которые с него начинаются.
+ * Индекс строится из базы при запуске приложения и затем обновляется при добавлении и редактировании вещей.
+ * Изменения вещей на других экземплярах сервера сюда не приходят, поэтому индекс периодически перестраивается
+ * из базы (см. {@link ItemSearchIndexResync}): при нескольких экземплярах изменение вещи на другом экземпляре
+ * попадает в результаты поиска не позже чем через shareit.search.index.resync-interval.
+ * Изменения, сделанные этим экземпляром во время перестроения, применяются к новому индексу повторно
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.mode", havingValue = "index", matchIfMissing = true)
+public class ItemSearchIndex implements ItemSearcher {
+
+    private static final int IN_NAME = 1;
+    private static final int IN_DESCRIPTION = 2;
+
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock rebuildLock = new ReentrantLock();
+    private NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private Map<Long, Set<String>> itemWords = new HashMap<>();
+    /**
+     * Вещи, изменённые во время перестроения индекса; null, если индекс не перестраивается
+     */
+    private List<Item> updatesDuringRebuild;
+
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuild();
+        log.info("Поисковый индекс построен, проиндексировано вещей: {}", itemWords.size());
+    }
+
+    /**
+     * Перестроить индекс по вещам из базы. Новый индекс строится без блокировки поиска и заменяет текущий целиком
+     *
+     * @return true, если индекс изменился
+     */
+    public boolean rebuild() {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                updatesDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            List<Item> items;
+            try {
+                items = itemRepository.findAllByAvailableTrue();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    updatesDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            NavigableMap<String, Map<Long, Integer>> newPostings = new TreeMap<>();
+            Map<Long, Set<String>> newItemWords = new HashMap<>();
+            items.forEach(item -> addToIndex(item, newPostings, newItemWords));
+            lock.writeLock().lock();
+            try {
+                updatesDuringRebuild.forEach(item -> updateIndex(item, newPostings, newItemWords));
+                updatesDuringRebuild = null;
+                if (newPostings.equals(postings)) {
+                    return false;
+                }
+                postings = newPostings;
+                itemWords = newItemWords;
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Недоступная для аренды вещь удаляется из индекса
+     */
+    @Override
+    public void update(Item item) {
+        lock.writeLock().lock();
+        try {
+            updateIndex(item, postings, itemWords);
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.add(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String normalize(String text) {
+        return String.join(" ", tokenize(text));
+    }
+
+    @Override
+    public boolean matches(String normalizedText, Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return false;
+        }
+        Set<String> itemWordSet = tokenize(item.getName());
+        itemWordSet.addAll(tokenize(item.getDescription()));
+        Set<String> queryWords = tokenize(normalizedText);
+        return !queryWords.isEmpty() && queryWords.stream()
+                .allMatch(queryWord -> itemWordSet.stream().anyMatch(word -> word.startsWith(queryWord)));
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            itemWords.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Найти вещи, у которых для каждого слова запроса есть начинающееся с него слово в названии или описании.
+     * Совпадение в названии весит больше, чем в описании, а полное совпадение слова — больше, чем совпадение по началу.
+     * Найденные вещи загружаются из базы одним запросом
+     */
+    @Override
+    public List<Item> search(String text) {
+        List<Long> foundIds = searchIds(text);
+        Map<Long, Item> foundItems = new HashMap<>();
+        itemRepository.findAllById(foundIds).forEach(i -> foundItems.put(i.getId(), i));
+        return foundIds.stream()
+                .map(foundItems::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+
+    /**
+     * Найти идентификаторы вещей по поисковому запросу, не обращаясь к базе
+     *
+     * @param text поисковой запрос
+     * @return идентификаторы найденных вещей от наиболее к наименее релевантным
+     */
+    private List<Long> searchIds(String text) {
+        Set<String> queryWords = tokenize(text);
+        if (queryWords.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Integer> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String queryWord : queryWords) {
+                Map<Long, Integer> wordScores = scoreWord(queryWord);
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    scores.keySet().retainAll(wordScores.keySet());
+                    scores.replaceAll((itemId, score) -> score + wordScores.get(itemId));
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private Map<Long, Integer> scoreWord(String queryWord) {
+        Map<Long, Integer> wordScores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> posting : postings.tailMap(queryWord, true).entrySet()) {
+            String word = posting.getKey();
+            if (!word.startsWith(queryWord)) {
+                break;
+            }
+            int matchWeight = word.length() == queryWord.length() ? 2 : 1;
+            posting.getValue().forEach((itemId, fields) -> {
+                int score = matchWeight * (((fields & IN_NAME) != 0 ? 2 : 0) + ((fields & IN_DESCRIPTION) != 0 ? 1 : 0));
+                wordScores.merge(itemId, score, Math::max);
+            });
+        }
+        return wordScores;
+    }
+
+    private void updateIndex(Item item, NavigableMap<String, Map<Long, Integer>> postings,
+                             Map<Long, Set<String>> itemWords) {
+        removeFromIndex(item.getId(), postings, itemWords);
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            addToIndex(item, postings, itemWords);
+        }
+    }
+
+    private void addToIndex(Item item, NavigableMap<String, Map<Long, Integer>> postings,
+                            Map<Long, Set<String>> itemWords) {
+        Map<String, Integer> fieldsByWord = new HashMap<>();
+        tokenize(item.getName()).forEach(word -> fieldsByWord.merge(word, IN_NAME, (a, b) -> a | b));
+        tokenize(item.getDescription()).forEach(word -> fieldsByWord.merge(word, IN_DESCRIPTION, (a, b) -> a | b));
+        fieldsByWord.forEach((word, fields) -> postings.computeIfAbsent(word, w -> new HashMap<>()).put(item.getId(), fields));
+        itemWords.put(item.getId(), fieldsByWord.keySet());
+    }
+
+    private void removeFromIndex(Long itemId, NavigableMap<String, Map<Long, Integer>> postings,
+                                 Map<Long, Set<String>> itemWords) {
+        Set<String> words = itemWords.remove(itemId);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            Map<Long, Integer> items = postings.get(word);
+            items.remove(itemId);
+            if (items.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    private Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Периодическое перестроение поискового индекса из базы, чтобы в него попадали изменения вещей,
+ * сделанные другими экземплярами сервера. Интервал задаётся свойством shareit.search.index.resync-interval.
+ * Если индекс изменился, кэш результатов поиска сбрасывается целиком: неизвестно, какие вещи изменились
+ */
+@Component
+@Slf4j
+@EnableScheduling
+@ConditionalOnProperty(name = "shareit.search.mode", havingValue = "index", matchIfMissing = true)
+public class ItemSearchIndexResync implements SchedulingConfigurer {
+
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final Duration interval;
+
+    public ItemSearchIndexResync(ItemSearchIndex itemSearchIndex,
+                                 ItemSearchCache itemSearchCache,
+                                 @Value("${shareit.search.index.resync-interval:1m}") Duration interval) {
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemSearchCache = itemSearchCache;
+        this.interval = interval;
+    }
+
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(this::resync, interval, interval));
+    }
+
+    public void resync() {
+        try {
+            if (itemSearchIndex.rebuild()) {
+                log.info("Поисковый индекс обновлён по данным базы, кэш результатов поиска сброшен");
+                itemSearchCache.evictAll();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Не удалось обновить поисковый индекс по данным базы", e);
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Поиск вещей по тексту в названии и описании.
+ * Реализация выбирается свойством shareit.search.mode: index (по умолчанию) — инвертированный индекс в памяти,
+ * database — один запрос к базе, использующий триграммные индексы PostgreSQL.
+ * При нескольких экземплярах сервера индекс каждого экземпляра узнаёт об изменениях вещей на других экземплярах
+ * только при периодическом перестроении, а поиск в базе сразу видит все изменения
+ */
+public interface ItemSearcher {
+
+    /**
+     * Найти вещи по поисковому запросу
+     *
+     * @param text поисковой запрос
+     * @return найденные вещи от наиболее к наименее релевантным
+     */
+    List<Item> search(String text);
+
+    /**
+     * Привести поисковой запрос к виду, при котором равные строки дают одинаковый результат поиска
+     *
+     * @param text поисковой запрос
+     */
+    String normalize(String text);
+
+    /**
+     * Проверить, попадает ли вещь в результат поиска по запросу
+     *
+     * @param normalizedText поисковой запрос, приведённый методом normalize
+     * @param item           проверяемая вещь
+     */
+    boolean matches(String normalizedText, Item item);
+
+    /**
+     * Учесть добавление или изменение вещи
+     *
+     * @param item добавленная или изменённая вещь
+     */
+    void update(Item item);
+
+    void clear();
+
+}
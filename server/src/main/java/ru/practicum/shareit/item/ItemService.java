@@ -1,24 +1,67 @@
 package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
 
+    int MAX_BATCH_SIZE = 100;
+
     List<ItemDto> getAllItems(Long ownerId);
 
     ItemDto getItemById(Long itemId);
 
+    /**
+     * Получить вещи по списку идентификаторов.
+     * Вещи загружаются одним запросом, их бронирования и отзывы — фиксированным числом запросов на весь список
+     *
+     * @param itemIds идентификаторы вещей, не более {@link #MAX_BATCH_SIZE}
+     * @return DTO найденных вещей в порядке идентификаторов; повторяющиеся и несуществующие идентификаторы пропускаются
+     */
+    List<ItemDto> getItemsByIds(List<Long> itemIds);
+
+    /**
+     * Получить ETag представления вещи, не загружая её бронирования и отзывы
+     *
+     * @param itemId идентификатор вещи
+     * @return ETag или null, если вещь не найдена
+     */
+    String getItemTag(Long itemId);
+
     ItemDto addItem(ItemDto newItem, Long ownerId);
 
+    /**
+     * Импортировать вещи владельца из JSON-массива или NDJSON (по одному объекту вещи в строке).
+     * Данные читаются потоком; строки проверяются так же, как при добавлении вещи, и сохраняются пакетами,
+     * каждый пакет — в своей транзакции. Строки с ошибками пропускаются и перечисляются в результате
+     *
+     * @param input   данные импорта
+     * @param ownerId идентификатор пользователя — владельца вещей
+     */
+    ItemImportResultDto importItems(InputStream input, Long ownerId);
+
     ItemDto editItem(Long itemId, ItemDto editedItem, Long ownerId);
 
     List<ItemDto> findItems(String text);
 
     CommentDto addComment(Long itemId, CommentDto newComment, Long authorId);
 
+    /**
+     * Получить свободные для бронирования интервалы вещи
+     *
+     * @param itemId идентификатор вещи
+     * @param from   начало периода, не раньше текущего момента (прошедшие бронирования не учитываются),
+     *               по умолчанию — текущий момент
+     * @param to     конец периода, по умолчанию — через 30 дней после начала периода
+     */
+    List<FreeSlotDto> getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
     void deleteAllItems();
 
 }
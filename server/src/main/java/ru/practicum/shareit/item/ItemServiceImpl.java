@@ -1,19 +1,34 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingFilter;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.errors.NotFoundException;
+import ru.practicum.shareit.etag.EntityTags;
 import ru.practicum.shareit.errors.ForbidenForUserOperationException;
 import ru.practicum.shareit.errors.ParameterNotValidException;
 import ru.practicum.shareit.errors.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequestRepository;
@@ -21,6 +36,9 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -36,6 +54,32 @@ public class ItemServiceImpl implements ItemService {
     private final ItemRequestRepository requestRepository;
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
+    private final ItemEnricher itemEnricher;
+    private final ItemAvailabilityCalendar itemAvailabilityCalendar;
+    private final ItemSearcher itemSearcher;
+    private final ItemSearchCache itemSearchCache;
+    private final EntityTags entityTags;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    private static final int DEFAULT_AVAILABILITY_DAYS = 30;
+    private static final int MAX_REPORTED_IMPORT_ERRORS = 1000;
+    private static final int MAX_NAME_LENGTH = 512;
+    private static final int MAX_DESCRIPTION_LENGTH = 1024;
+
+    @Value("${shareit.import.chunk-size:1000}")
+    private int importChunkSize;
+
+    /**
+     * Прочитанная строка импорта
+     *
+     * @param number номер строки, начиная с единицы
+     * @param item   DTO вещи или null, если строку не удалось разобрать
+     * @param error  ошибка разбора строки
+     */
+    private record ImportRow(long number, ItemDto item, String error) {
+    }
 
 
     @Override
@@ -46,12 +90,7 @@ public class ItemServiceImpl implements ItemService {
         if (owner.isEmpty()) {
             return Collections.emptyList();
         } else {
-            return itemRepository.findByOwner(owner.get()).stream()
-                    .map(i -> itemMapper.itemToItemDto(i, bookingService.findLastItemBooking(i),
-                        bookingService.findNextItemBooking(i),
-                        commentRepository.findByCommentedItem(i).stream().map(commentMapper::commentToCommentDto).toList(),
-                        false))
-                    .toList();
+            return itemEnricher.enrich(itemRepository.findByOwner(owner.get()), false);
         }
     }
 
@@ -60,13 +99,38 @@ public class ItemServiceImpl implements ItemService {
     public ItemDto getItemById(Long itemId) {
         log.info("Запрос информации о вещи с id = {}", itemId);
         return itemRepository.findById(itemId)
-                .map(i -> itemMapper.itemToItemDto(i, bookingService.findLastItemBooking(i),
-                    bookingService.findNextItemBooking(i),
-                    commentRepository.findByCommentedItem(i).stream().map(commentMapper::commentToCommentDto).toList(),
-                    false))
+                .map(i -> itemEnricher.enrich(i, false))
                 .get();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemDto> getItemsByIds(List<Long> itemIds) {
+        log.info("Запрос информации о {} вещах", itemIds.size());
+        if (itemIds.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("За один запрос можно получить не более " + MAX_BATCH_SIZE + " вещей");
+        }
+        Set<Long> distinctIds = new LinkedHashSet<>(itemIds);
+        if (distinctIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Item> items = new HashMap<>();
+        for (Item item : itemRepository.findAllWithOwnerByIdIn(distinctIds)) {
+            items.put(item.getId(), item);
+        }
+        List<Item> orderedItems = distinctIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return itemEnricher.enrich(orderedItems, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getItemTag(Long itemId) {
+        return entityTags.of(itemId, itemRepository.findVersionById(itemId).orElse(null));
+    }
+
     @Override
     @Transactional
     public ItemDto addItem(ItemDto newItem, Long ownerId) {
@@ -89,17 +153,63 @@ public class ItemServiceImpl implements ItemService {
             ItemRequest request = requestRepository.findById(newItem.getRequestId()).get();
             request.setRequestedItems(createdItem);
             requestRepository.save(request);
+            requestRepository.incrementVersion(request.getId());
         } else {
             createdItem = itemRepository.save(item);
         }
+        updateSearchIndex(createdItem);
+        itemSearchCache.evictItem(createdItem);
         return Optional.of(createdItem)
-                .map(i -> itemMapper.itemToItemDto(i, bookingService.findLastItemBooking(i),
-                    bookingService.findNextItemBooking(i),
-                    commentRepository.findByCommentedItem(i).stream().map(commentMapper::commentToCommentDto).toList(),
-                    false))
+                .map(i -> itemEnricher.enrich(i, false))
                 .get();
     }
 
+    /**
+     * Строки накапливаются и сохраняются пакетами по shareit.import.chunk-size. Идентификаторы вещей выдаются
+     * последовательностью блоками, поэтому вставки пакета отправляются в базу пакетами JDBC
+     * (hibernate.jdbc.batch_size). После каждого пакета контекст сохранения очищается, чтобы проверка изменений
+     * при следующих сбросах не проходила по уже сохранённым вещам. При ошибке синтаксиса JSON импорт
+     * прекращается, вещи из прочитанных до ошибки строк сохраняются
+     */
+    @Override
+    public ItemImportResultDto importItems(InputStream input, Long ownerId) {
+        log.info("Получен запрос на импорт вещей пользователя с id = {}", ownerId);
+        isOwnerExist(ownerId);
+        ItemImportResultDto result = new ItemImportResultDto();
+        List<ImportRow> chunk = new ArrayList<>(importChunkSize);
+        long rowsRead = 0;
+        try (JsonParser parser = objectMapper.createParser(input)) {
+            JsonToken token = parser.nextToken();
+            boolean isArray = token == JsonToken.START_ARRAY;
+            if (isArray) {
+                token = parser.nextToken();
+            }
+            while (token != null && !(isArray && token == JsonToken.END_ARRAY)) {
+                JsonNode node = objectMapper.readTree(parser);
+                rowsRead++;
+                try {
+                    chunk.add(new ImportRow(rowsRead, objectMapper.treeToValue(node, ItemDto.class), null));
+                } catch (JsonProcessingException e) {
+                    chunk.add(new ImportRow(rowsRead, null, "Некорректные данные вещи: " + e.getOriginalMessage()));
+                }
+                if (chunk.size() >= importChunkSize) {
+                    importChunk(chunk, ownerId, result);
+                    chunk.clear();
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            chunk.add(new ImportRow(rowsRead + 1, null, "Некорректный JSON, импорт прерван: " + e.getOriginalMessage()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        importChunk(chunk, ownerId, result);
+        itemSearchCache.evictAll();
+        log.info("Импорт вещей пользователя с id = {} завершён: добавлено {}, с ошибками {}", ownerId,
+                result.getImported(), result.getFailed());
+        return result;
+    }
+
     @Override
     @Transactional
     public ItemDto editItem(Long itemId, ItemDto editedItem, Long ownerId) {
@@ -111,6 +221,9 @@ public class ItemServiceImpl implements ItemService {
             log.info("Обновляемая вещь существует в системе");
             if (existItem.get().getOwner().equals(owner)) {
                 Item updatingItem = existItem.get();
+                String oldName = updatingItem.getName();
+                String oldDescription = updatingItem.getDescription();
+                Boolean oldAvailable = updatingItem.getAvailable();
                 if (editedItem.getName() != null) {
                     checkItemName(editedItem);
                     log.info("Новое значение поля name валидно");
@@ -127,11 +240,14 @@ public class ItemServiceImpl implements ItemService {
                     updatingItem.setAvailable(editedItem.getAvailable());
                 }
                 Item item = itemRepository.save(updatingItem);
+                if (!Objects.equals(oldName, item.getName()) || !Objects.equals(oldDescription, item.getDescription())
+                        || !Objects.equals(oldAvailable, item.getAvailable())) {
+                    itemRepository.incrementVersion(item.getId());
+                    updateSearchIndex(item);
+                    itemSearchCache.evictItem(item);
+                }
                 return itemRepository.findById(item.getId())
-                        .map(i -> itemMapper.itemToItemDto(i, bookingService.findLastItemBooking(i),
-                            bookingService.findNextItemBooking(i),
-                            commentRepository.findByCommentedItem(i).stream().map(commentMapper::commentToCommentDto).toList(),
-                            false))
+                        .map(i -> itemEnricher.enrich(i, false))
                         .get();
             } else {
                 throw new ForbidenForUserOperationException("Пользователю " + owner.getName() +
@@ -151,16 +267,9 @@ public class ItemServiceImpl implements ItemService {
             throw new ParameterNotValidException("Поисковой запрос содержит пустую строку");
         } else {
             log.info("Получен поисковой запрос: {}", text);
-            Set<Item> withContainedName = new HashSet<>(itemRepository.findAllByNameContainingIgnoreCase(text));
-            Set<Item> withContainedDescription = new HashSet<>(itemRepository.findAllByDescriptionContainingIgnoreCase(text));
-            withContainedName.addAll(withContainedDescription);
-            return withContainedName.stream()
+            return itemSearchCache.get(text, () -> itemEnricher.enrich(itemSearcher.search(text).stream()
                     .filter(Item::getAvailable)
-                    .map(i -> itemMapper.itemToItemDto(i, bookingService.findLastItemBooking(i),
-                            bookingService.findNextItemBooking(i),
-                            commentRepository.findByCommentedItem(i).stream().map(commentMapper::commentToCommentDto).toList(),
-                            false))
-                    .toList();
+                    .toList(), false));
         }
     }
 
@@ -174,21 +283,67 @@ public class ItemServiceImpl implements ItemService {
         Comment comment = commentMapper.commentDtoToComment(newComment, commentedItem, author);
         comment.setCommentedItem(commentedItem);
         comment.setAuthorName(author);
+        itemSearchCache.evictContaining(itemId);
+        itemRepository.incrementVersion(itemId);
         return Optional.of(commentRepository.save(comment)).map(commentMapper::commentToCommentDto).get();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<FreeSlotDto> getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        log.info("Запрос свободных интервалов вещи с id = {}", itemId);
+        Optional<Item> item = itemRepository.findById(itemId);
+        if (item.isEmpty()) {
+            throw new NotFoundException("Вещь с id = " + itemId + " не найдена");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (from != null && from.isBefore(now)) {
+            throw new ValidationException("Начало периода не может быть в прошлом");
+        }
+        LocalDateTime periodStart = from == null ? now : from;
+        LocalDateTime periodEnd = to == null ? periodStart.plusDays(DEFAULT_AVAILABILITY_DAYS) : to;
+        if (!periodStart.isBefore(periodEnd)) {
+            throw new ValidationException("Начало периода должно быть раньше его конца");
+        }
+        return itemAvailabilityCalendar.getFreeSlots(item.get(), periodStart, periodEnd);
+    }
+
     @Override
     @Transactional
     public void deleteAllItems() {
         itemRepository.deleteAll();
+        itemAvailabilityCalendar.clear();
+        itemSearcher.clear();
+        itemSearchCache.evictAll();
     }
 
 
+    /**
+     * Поисковый индекс общий для всех транзакций, поэтому изменение вещи попадает в него только после фиксации
+     * транзакции: при откате вещь остаётся в индексе в прежнем виде. Синхронизация регистрируется раньше повторного
+     * сброса кэша поиска, поэтому после фиксации кэш сбрасывается уже по обновлённому индексу
+     */
+    private void updateSearchIndex(Item item) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    itemSearcher.update(item);
+                }
+            });
+        } else {
+            itemSearcher.update(item);
+        }
+    }
+
     private void checkItemName(ItemDto item) {
         String name = item.getName();
         if (name == null || name.isEmpty() || name.isBlank()) {
             throw new ValidationException("У вещи должно быть название");
         }
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new ValidationException("Название вещи должно быть не длиннее " + MAX_NAME_LENGTH + " символов");
+        }
     }
 
     private void checkItemDescription(ItemDto item) {
@@ -196,6 +351,9 @@ public class ItemServiceImpl implements ItemService {
         if (description == null || description.isEmpty() || description.isBlank()) {
             throw new ValidationException("У вещи должно быть описание");
         }
+        if (description.length() > MAX_DESCRIPTION_LENGTH) {
+            throw new ValidationException("Описание вещи должно быть не длиннее " + MAX_DESCRIPTION_LENGTH + " символов");
+        }
     }
 
     private void checkItemAvailable(ItemDto item) {
@@ -205,6 +363,87 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
+    /**
+     * Сохранить пакет строк в отдельной транзакции. Если база отклонила пакет, транзакция пакета откатывается,
+     * все его строки, прошедшие проверку, перечисляются в результате как ошибочные, и импорт продолжается
+     * со следующего пакета
+     */
+    private void importChunk(List<ImportRow> rows, Long ownerId, ItemImportResultDto result) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<ImportRow> validRows = new ArrayList<>(rows.size());
+        List<Item> savedItems;
+        try {
+            savedItems = transactionTemplate.execute(status -> saveChunk(rows, ownerId, result, validRows));
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Пакет из {} вещей пользователя с id = {} не сохранён", validRows.size(), ownerId, e);
+            for (ImportRow row : validRows) {
+                addImportError(result, row.number(), "Вещь не сохранена: " + e.getMostSpecificCause().getMessage());
+            }
+            return;
+        }
+        result.setImported(result.getImported() + savedItems.size());
+        savedItems.forEach(itemSearcher::update);
+    }
+
+    private List<Item> saveChunk(List<ImportRow> rows, Long ownerId, ItemImportResultDto result,
+                                 List<ImportRow> validRows) {
+        Set<Long> requestIds = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (row.item() != null && row.item().getRequestId() != null) {
+                requestIds.add(row.item().getRequestId());
+            }
+        }
+        Map<Long, ItemRequest> requests = new HashMap<>();
+        for (ItemRequest request : requestRepository.findAllById(requestIds)) {
+            requests.put(request.getId(), request);
+        }
+        User owner = entityManager.getReference(User.class, ownerId);
+        List<Item> items = new ArrayList<>(rows.size());
+        Set<Long> answeredRequestIds = new HashSet<>();
+        for (ImportRow row : rows) {
+            ItemDto newItem = row.item();
+            if (newItem == null) {
+                addImportError(result, row.number(), row.error());
+                continue;
+            }
+            try {
+                checkItemName(newItem);
+                checkItemDescription(newItem);
+                checkItemAvailable(newItem);
+                if (newItem.getRequestId() != null && !requests.containsKey(newItem.getRequestId())) {
+                    throw new ValidationException("Запроса с id = " + newItem.getRequestId()
+                            + " на создание новой вещи не существует");
+                }
+            } catch (ValidationException e) {
+                addImportError(result, row.number(), e.getMessage());
+                continue;
+            }
+            Item item = itemMapper.itemDtoToItem(newItem);
+            item.setId(null);
+            item.setOwner(owner);
+            items.add(item);
+            validRows.add(row);
+            if (newItem.getRequestId() != null) {
+                requests.get(newItem.getRequestId()).setRequestedItems(item);
+                answeredRequestIds.add(newItem.getRequestId());
+            }
+        }
+        itemRepository.saveAll(items);
+        itemRepository.flush();
+        answeredRequestIds.forEach(requestRepository::incrementVersion);
+        entityManager.clear();
+        return items;
+    }
+
+    private void addImportError(ItemImportResultDto result, long row, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_IMPORT_ERRORS) {
+            result.getErrors().add(new ItemImportResultDto.RowError(row, message));
+        }
+    }
+
     private Optional<User> isOwnerExist(Long ownerId) {
         Optional<User> owner = userRepository.findById(ownerId);
         if (owner.isEmpty()) {
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Результат импорта вещей
+ */
+@Data
+public class ItemImportResultDto {
+
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Ошибка в строке импорта
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        /**
+         * Номер строки (элемента массива или строки NDJSON), начиная с единицы
+         */
+        private long row;
+        private String message;
+
+    }
+
+}
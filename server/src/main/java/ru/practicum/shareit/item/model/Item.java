@@ -9,8 +9,13 @@ import ru.practicum.shareit.user.model.User;
 @Table(name = "items")
 public class Item {
 
+    /**
+     * Идентификаторы выдаются последовательностью блоками по 50 без обращения к базе на каждую вещь,
+     * поэтому вставки вещей отправляются пакетами JDBC
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 512)
@@ -26,4 +31,8 @@ public class Item {
     @JoinColumn(name = "owner_id")
     private User owner;
 
+    /** Версия вещи для ETag: растёт и при изменении вещи, и при изменении её отзывов */
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version;
+
 }
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.pagination;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import ru.practicum.shareit.errors.ValidationException;
+
+import java.util.Map;
+
+/**
+ * Постраничный вывод по ключу (keyset): страница начинается после записи с заданными значениями ключа
+ * сортировки и идентификатором, поэтому глубина страницы не влияет на стоимость запроса
+ */
+public final class KeysetPages {
+
+    public static final int MAX_SIZE = 1000;
+
+    private KeysetPages() {
+    }
+
+
+    /**
+     * Сформировать позицию страницы по ключу (значение сортировки, идентификатор)
+     *
+     * @param keyProperty       свойство сущности, по которому выполняется сортировка
+     * @param afterKey          значение свойства у последней записи предыдущей страницы
+     * @param afterId           идентификатор последней записи предыдущей страницы
+     * @param incompleteMessage сообщение об ошибке, если указана только одна часть ключа
+     */
+    public static ScrollPosition position(String keyProperty, Object afterKey, Long afterId, String incompleteMessage) {
+        if (afterKey == null && afterId == null) {
+            return ScrollPosition.keyset();
+        }
+        if (afterKey == null || afterId == null) {
+            throw new ValidationException(incompleteMessage);
+        }
+        return ScrollPosition.forward(Map.of(keyProperty, afterKey, "id", afterId));
+    }
+
+    public static Limit limit(int size) {
+        if (size <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным числом");
+        }
+        if (size > MAX_SIZE) {
+            throw new ValidationException("Размер страницы должен быть не больше " + MAX_SIZE);
+        }
+        return Limit.of(size);
+    }
+
+}
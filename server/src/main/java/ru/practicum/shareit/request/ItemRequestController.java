@@ -1,12 +1,15 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,12 +17,17 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemRequestController {
 
+    private static final String DEFAULT_PAGE_SIZE = "100";
+
     private final ItemRequestService itemRequestService;
 
 
     @GetMapping("/all")
-    public ResponseEntity<List<ItemRequestResponseDto>> getAllAnotherUserRequests(@RequestHeader("X-Sharer-User-Id") Long requestedUserId) {
-        return ResponseEntity.ok(itemRequestService.getAllAnotherUserRequests(requestedUserId));
+    public ResponseEntity<List<ItemRequestResponseDto>> getAllAnotherUserRequests(@RequestHeader("X-Sharer-User-Id") Long requestedUserId,
+                                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreated,
+                                                                                  @RequestParam(required = false) Long afterId,
+                                                                                  @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(itemRequestService.getAllAnotherUserRequests(requestedUserId, afterCreated, afterId, size));
     }
 
     @GetMapping
@@ -28,8 +36,12 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<ItemRequestResponseDto> getRequestById(@PathVariable Long requestId) {
-        return ResponseEntity.ok(itemRequestService.getRequestById(requestId));
+    public ResponseEntity<ItemRequestResponseDto> getRequestById(@PathVariable Long requestId, WebRequest request) {
+        String tag = itemRequestService.getRequestTag(requestId);
+        if (tag != null && request.checkNotModified(tag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(tag).body(itemRequestService.getRequestById(requestId));
     }
 
     @PostMapping
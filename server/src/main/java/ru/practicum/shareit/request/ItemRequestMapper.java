@@ -8,6 +8,7 @@ import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Component
@@ -20,7 +21,7 @@ public class ItemRequestMapper {
         request.setDescription(requestDto.getDescription());
         request.setCreated(false);
         request.setRequestedUserId(requestedUserId);
-        request.setCreationDate(LocalDateTime.now());
+        request.setCreationDate(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
         request.setRequestedItems(requestedItems);
         return request;
     }
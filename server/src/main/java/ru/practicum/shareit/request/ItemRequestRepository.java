@@ -1,14 +1,49 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
     List<ItemRequest> findByRequestedUserId(Long requestedUserId);
 
+    @EntityGraph(attributePaths = {"requestedItems"})
+    Window<ItemRequest> findByRequestedUserIdNotOrderByCreationDateDescIdDesc(Long requestedUserId,
+                                                                             ScrollPosition position, Limit limit);
+
+    /**
+     * Версии представления запроса: в него входит и предложенная вещь, поэтому кроме версии запроса
+     * возвращаются идентификатор и версия этой вещи
+     */
+    @Query("select r.version as requestVersion, i.id as itemId, i.version as itemVersion " +
+            "from ItemRequest r left join r.requestedItems i where r.id = :id")
+    Optional<RequestVersion> findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update ItemRequest r set r.version = r.version + 1 where r.id = :id")
+    void incrementVersion(@Param("id") Long id);
+
+
+    interface RequestVersion {
+
+        Long getRequestVersion();
+
+        Long getItemId();
+
+        Long getItemVersion();
+
+    }
+
 }
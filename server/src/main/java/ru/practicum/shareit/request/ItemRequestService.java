@@ -4,16 +4,33 @@ package ru.practicum.shareit.request;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestService {
 
-    List<ItemRequestResponseDto> getAllAnotherUserRequests(Long requestedUserId);
+    /**
+     * Получить страницу запросов других пользователей, отсортированных от более новых к более старым.
+     * Для получения следующей страницы передаются дата создания и идентификатор последнего запроса предыдущей страницы
+     *
+     * @param requestedUserId идентификатор текущего пользователя
+     * @param afterCreated    дата создания последнего запроса предыдущей страницы
+     * @param afterId         идентификатор последнего запроса предыдущей страницы
+     * @param size            максимальное количество запросов на странице
+     */
+    List<ItemRequestResponseDto> getAllAnotherUserRequests(Long requestedUserId, LocalDateTime afterCreated,
+                                                           Long afterId, int size);
 
     List<ItemRequestResponseDto> getOnlyThisUserRequests(Long requestedUserId);
 
     ItemRequestResponseDto getRequestById(Long requestId);
 
+    /**
+     * @param requestId идентификатор запроса
+     * @return ETag представления запроса или null, если запрос не найден
+     */
+    String getRequestTag(Long requestId);
+
     ItemRequestResponseDto addRequest(ItemRequestDto itemRequest, Long requestedUserId);
 
     void deleteAllRequests();
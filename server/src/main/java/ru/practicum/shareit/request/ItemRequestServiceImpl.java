@@ -2,14 +2,19 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.etag.EntityTags;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.AvailableItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.KeysetPages;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,17 +26,21 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRequestMapper itemRequestMapper;
     private final ItemMapper itemMapper;
+    private final EntityTags entityTags;
 
 
     @Override
-    public List<ItemRequestResponseDto> getAllAnotherUserRequests(Long requestedUserId) {
+    @Transactional(readOnly = true)
+    public List<ItemRequestResponseDto> getAllAnotherUserRequests(Long requestedUserId, LocalDateTime afterCreated,
+                                                                  Long afterId, int size) {
         log.info("Пользователь с id = {} пытается посмотреть запросы на создание новой вещи всех пользователей", requestedUserId);
-        List<ItemRequest> allAnotherUserRequests = itemRequestRepository.findAll()
-                .stream()
-                .filter(r -> !requestedUserId.equals(r.getRequestedUserId()))
-                .sorted()
-                .toList();
-        return allAnotherUserRequests.stream().map(this::makeResponseDto).toList();
+        Window<ItemRequest> allAnotherUserRequests = itemRequestRepository
+                .findByRequestedUserIdNotOrderByCreationDateDescIdDesc(requestedUserId,
+                        KeysetPages.position("creationDate", afterCreated, afterId, "Для перехода к следующей " +
+                                "странице запросов необходимо указать и дату создания, и идентификатор последнего " +
+                                "полученного запроса"),
+                        KeysetPages.limit(size));
+        return allAnotherUserRequests.getContent().stream().map(this::makeResponseDto).toList();
     }
 
     @Override
@@ -50,6 +59,14 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return makeResponseDto(itemRequestRepository.findById(requestId).get());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String getRequestTag(Long requestId) {
+        return itemRequestRepository.findVersionById(requestId)
+                .map(v -> entityTags.of(requestId, v.getRequestVersion(), v.getItemId(), v.getItemVersion()))
+                .orElse(null);
+    }
+
     @Override
     public ItemRequestResponseDto addRequest(ItemRequestDto itemRequest, Long requestedUserId) {
         log.info("Бронирующий пользователь c id = {} пытается создать запрос на добавление вещи со следующим описанием: {}", requestedUserId,
@@ -29,6 +29,10 @@ public class ItemRequest implements Comparable<ItemRequest> {
     @JoinColumn(name = "item_id")
     private Item requestedItems;
 
+    /** Версия запроса для ETag: растёт, когда к запросу привязывается новая вещь */
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version;
+
     @Override
     public int compareTo(ItemRequest request) {
         if (this.creationDate.equals(request.creationDate)) {
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.user.dto.DeleteDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
@@ -23,8 +24,12 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<UserDto> getUserById(@PathVariable Long userId) {
-        return ResponseEntity.ok(userService.getUserById(userId));
+    public ResponseEntity<UserDto> getUserById(@PathVariable Long userId, WebRequest request) {
+        String tag = userService.getUserTag(userId);
+        if (tag != null && request.checkNotModified(tag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(tag).body(userService.getUserById(userId));
     }
 
     @PostMapping
@@ -11,6 +11,12 @@ public interface UserService {
 
     UserDto getUserById(Long userId);
 
+    /**
+     * @param userId идентификатор пользователя
+     * @return ETag представления пользователя или null, если пользователь не найден
+     */
+    String getUserTag(Long userId);
+
     UserDto addUser(UserDto newUser);
 
     UserDto updateUser(Long userId, UserDto updateUser);
@@ -2,11 +2,15 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.errors.NotFoundException;
 import ru.practicum.shareit.errors.SameEmailException;
 import ru.practicum.shareit.errors.ValidationException;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.dto.DeleteDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
@@ -20,6 +24,10 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final ItemRepository itemRepository;
+    private final EntityTags entityTags;
+
+    private static final String UNIQUE_EMAIL_CONSTRAINT = "UNIQUE_USER_EMAIL";
 
 
     @Transactional(readOnly = true)
@@ -34,13 +42,18 @@ public class UserServiceImpl implements UserService {
         return userRepository.findById(userId).map(userMapper::userToUserDto).get();
     }
 
+    @Transactional(readOnly = true)
+    public String getUserTag(Long userId) {
+        return entityTags.of(userId, userRepository.findVersionById(userId).orElse(null));
+    }
+
     @Transactional
     public UserDto addUser(UserDto newUser) {
         log.info("Получен запрос на добавление пользователя с именем {}", newUser.getName());
         checkUserEmail(newUser);
         log.info("Добавляемый пользователь валиден");
         User user = userMapper.userDtoToUser(newUser);
-        return Optional.of(userRepository.save(user)).map(userMapper::userToUserDto).get();
+        return Optional.of(saveUser(user)).map(userMapper::userToUserDto).get();
     }
 
     @Transactional
@@ -50,15 +63,25 @@ public class UserServiceImpl implements UserService {
         if (existUser.isPresent()) {
             log.info("Обновляемый пользователь существует в системе");
             User updatingUser = existUser.get();
-            if (updateUser.getEmail() != null) {
+            boolean isEmailChanged = updateUser.getEmail() != null
+                    && !updateUser.getEmail().equals(updatingUser.getEmail());
+            if (isEmailChanged) {
                 checkUserEmail(updateUser);
                 log.info("Новое значение электронной почты валидно");
                 updatingUser.setEmail(updateUser.getEmail());
             }
+            boolean isNameChanged = updateUser.getName() != null && !updateUser.getName().equals(updatingUser.getName());
             if (updateUser.getName() != null) {
                 updatingUser.setName(updateUser.getName());
             }
-            User user = userRepository.save(updatingUser);
+            User user = saveUser(updatingUser);
+            if (isEmailChanged || isNameChanged) {
+                userRepository.incrementVersion(userId);
+            }
+            if (isNameChanged) {
+                log.info("Имя пользователя изменилось, обновляются версии вещей с его отзывами");
+                itemRepository.incrementVersionOfCommentedBy(userId);
+            }
             return userRepository.findById(user.getId()).map(userMapper::userToUserDto).get();
         } else {
             throw new NotFoundException("Обновляемый пользователь с id = " + userId + " не найден в системе");
@@ -87,10 +110,38 @@ public class UserServiceImpl implements UserService {
         if (!email.contains("@") || email.contains(" ")) {
             throw new ValidationException("У пользователя " + user.getName() + " указан некорректный адрес электронной почты");
         }
-        List<String> existEmails = userRepository.findAll().stream().map(User::getEmail).toList();
-        if (existEmails.contains(email)) {
+        if (userRepository.existsByEmail(email)) {
             throw new SameEmailException("Адрес электронной почты: " + email + " уже занят другим пользователем");
         }
     }
 
+    /**
+     * Сохранить пользователя. Предварительная проверка адреса электронной почты не защищает от параллельной
+     * регистрации с тем же адресом, поэтому нарушение ограничения UNIQUE_USER_EMAIL при записи
+     * также преобразуется в SameEmailException
+     *
+     * @param user сохраняемый пользователь
+     */
+    private User saveUser(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (isSameEmailViolation(e)) {
+                throw new SameEmailException("Адрес электронной почты: " + user.getEmail() +
+                        " уже занят другим пользователем");
+            }
+            throw e;
+        }
+    }
+
+    private boolean isSameEmailViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toUpperCase().contains(UNIQUE_EMAIL_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
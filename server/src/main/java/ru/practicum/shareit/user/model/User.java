@@ -18,4 +18,8 @@ public class User {
     @Column(name = "email", length = 512, nullable = false)
     private String email;
 
+    /** Версия профиля пользователя для ETag, см. {@link ru.practicum.shareit.etag.EntityTags} */
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version;
+
 }
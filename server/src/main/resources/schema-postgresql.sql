@@ -0,0 +1,7 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (lower(description) gin_trgm_ops);
+
+SELECT setval('items_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM items) + 50, (SELECT last_value FROM items_seq)));
@@ -2,25 +2,46 @@ CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL UNIQUE,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT pk_user PRIMARY KEY (id),
     CONSTRAINT UNIQUE_USER_EMAIL UNIQUE (email)
 );
 
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
 CREATE TABLE IF NOT EXISTS items (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL UNIQUE,
     name VARCHAR(512),
     description VARCHAR(1024),
     is_available BOOLEAN,
-    owner_id BIGINT REFERENCES users(id)
+    owner_id BIGINT REFERENCES users(id),
+    version BIGINT DEFAULT 0 NOT NULL
 );
 
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS bookings (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     status VARCHAR(10) NOT NULL,
+    reserve_start TIMESTAMP,
+    reserve_end TIMESTAMP,
+    version BIGINT DEFAULT 0 NOT NULL,
     user_id BIGINT REFERENCES users(id),
     item_id BIGINT REFERENCES items(id)
 );
 
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_user_start ON bookings (user_id, reserve_start);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, reserve_start);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_end ON bookings (item_id, status, reserve_end);
+
 CREATE TABLE IF NOT EXISTS comments (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL UNIQUE,
     text VARCHAR(5000) NOT NULL,
@@ -34,5 +55,17 @@ CREATE TABLE IF NOT EXISTS requests (
     description VARCHAR(5000) NOT NULL,
     is_created BOOLEAN,
     user_id BIGINT,
-    item_id BIGINT REFERENCES items(id)
+    creation_date TIMESTAMP,
+    item_id BIGINT REFERENCES items(id),
+    version BIGINT DEFAULT 0 NOT NULL
+);
+
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_requests_creation_date ON requests (creation_date, id);
+
+CREATE TABLE IF NOT EXISTS etag_seed (
+    id INTEGER NOT NULL,
+    seed VARCHAR(32) NOT NULL,
+    CONSTRAINT pk_etag_seed PRIMARY KEY (id)
 );
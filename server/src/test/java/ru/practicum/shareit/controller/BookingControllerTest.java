@@ -85,7 +85,7 @@ public class BookingControllerTest {
 
     @Test
     public void shouldGetAllUserBookings() throws Exception {
-        when(bookingService.getAllUserBookings(1L, BookingFilter.WAITING))
+        when(bookingService.getAllUserBookings(1L, BookingFilter.WAITING, null, null, 100))
                 .thenReturn(List.of(bookingResponseDto));
         mvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
@@ -102,7 +102,7 @@ public class BookingControllerTest {
 
     @Test
     public void shouldGetAllItemBookings() throws Exception {
-        when(bookingService.getAllItemBookings(1L, BookingFilter.WAITING))
+        when(bookingService.getAllItemBookings(1L, BookingFilter.WAITING, null, null, 100))
                 .thenReturn(List.of(bookingResponseDto));
         mvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", 1L)
@@ -40,4 +40,18 @@ public class ExceptionControllerTest {
         assertThat(response.getError(), equalTo(see.getMessage()));
     }
 
+    @Test
+    public void checkHandleBookingOverlap() {
+        BookingOverlapException boe = new BookingOverlapException("booking overlap");
+        ErrorResponse response = exceptionController.handleBookingOverlap(boe);
+        assertThat(response.getError(), equalTo(boe.getMessage()));
+    }
+
+    @Test
+    public void checkHandleBookingUpdateConflict() {
+        BookingUpdateConflictException buce = new BookingUpdateConflictException("booking update conflict");
+        ErrorResponse response = exceptionController.handleBookingUpdateConflict(buce);
+        assertThat(response.getError(), equalTo(buce.getMessage()));
+    }
+
 }
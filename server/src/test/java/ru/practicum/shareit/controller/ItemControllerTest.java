@@ -8,23 +8,29 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.item.ItemController;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(MockitoExtension.class)
 public class ItemControllerTest {
@@ -93,6 +99,45 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.available", is(itemDto.getAvailable())));
     }
 
+    @Test
+    public void shouldGetItemsByIds() throws Exception {
+        when(itemService.getItemsByIds(List.of(1L, 2L)))
+                .thenReturn(List.of(itemDto));
+        mvc.perform(get("/items/batch")
+                        .param("ids", "1,2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$.[0].id", is(itemDto.getId()), Long.class))
+                .andExpect(jsonPath("$.[0].name", is(itemDto.getName())));
+    }
+
+    @Test
+    public void shouldGetItemByIdWithTag() throws Exception {
+        when(itemService.getItemTag(itemDto.getId()))
+                .thenReturn("tag-1");
+        when(itemService.getItemById(itemDto.getId()))
+                .thenReturn(itemDto);
+        mvc.perform(get("/items/1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"tag-1\""))
+                .andExpect(jsonPath("$.id", is(itemDto.getId()), Long.class));
+    }
+
+    @Test
+    public void shouldNotGetUnchangedItem() throws Exception {
+        when(itemService.getItemTag(itemDto.getId()))
+                .thenReturn("tag-1");
+        mvc.perform(get("/items/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"tag-1\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"tag-1\""))
+                .andExpect(content().string(""));
+        verify(itemService, never()).getItemById(any());
+    }
+
     @Test
     public void shouldAddItem() throws Exception {
         when(itemService.addItem(itemDto, 1L))
@@ -110,6 +155,27 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.available", is(itemDto.getAvailable())));
     }
 
+    @Test
+    public void shouldImportItems() throws Exception {
+        ItemImportResultDto result = new ItemImportResultDto();
+        result.setImported(1);
+        result.setFailed(1);
+        result.getErrors().add(new ItemImportResultDto.RowError(2, "У вещи должно быть название"));
+        when(itemService.importItems(any(), eq(1L)))
+                .thenReturn(result);
+        mvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content("{\"name\": \"Дрель\"}\n{\"name\": \"\"}")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.errors[0].row", is(2)))
+                .andExpect(jsonPath("$.errors[0].message", is("У вещи должно быть название")));
+    }
+
     @Test
     public void shouldEditItem() throws Exception {
         when(itemService.editItem(itemDto.getId(), itemDto, 1L))
@@ -142,6 +208,22 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.[0].available", is(itemDto.getAvailable())));
     }
 
+    @Test
+    public void shouldGetItemAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2031, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2031, 1, 31, 0, 0);
+        when(itemService.getItemAvailability(itemDto.getId(), from, to))
+                .thenReturn(List.of(new FreeSlotDto(from, to)));
+        mvc.perform(get("/items/1/availability")
+                        .param("from", "2031-01-01T00:00:00")
+                        .param("to", "2031-01-31T00:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$.[0].start.[2]", is(from.getDayOfMonth())))
+                .andExpect(jsonPath("$.[0].end.[2]", is(to.getDayOfMonth())));
+    }
+
     @Test
     public void shouldAddComment() throws Exception {
         when(itemService.addComment(itemDto.getId(), commentDto, 1L))
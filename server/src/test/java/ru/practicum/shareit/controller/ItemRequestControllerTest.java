@@ -69,7 +69,7 @@ public class ItemRequestControllerTest {
 
     @Test
     public void shouldGetAllAnotherUserRequests() throws Exception {
-        when(requestService.getAllAnotherUserRequests(2L))
+        when(requestService.getAllAnotherUserRequests(2L, null, null, 100))
                 .thenReturn(List.of(responseDto));
         mvc.perform(get("/requests/all")
                         .header("X-Sharer-User-Id", 2L)
@@ -9,25 +9,32 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingServiceImpl;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingFilter;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.errors.BookingOverlapException;
+import ru.practicum.shareit.errors.BookingUpdateConflictException;
 import ru.practicum.shareit.errors.ForbidenForUserOperationException;
 import ru.practicum.shareit.errors.NotFoundException;
+import ru.practicum.shareit.errors.ValidationException;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemServiceImpl;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.KeysetPages;
 import ru.practicum.shareit.user.UserServiceImpl;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.*;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -41,6 +48,7 @@ public class BookingServiceTest {
     private final ItemServiceImpl itemService;
     private final UserServiceImpl userService;
     private final BookingServiceImpl bookingService;
+    private final BookingRepository bookingRepository;
     private final ItemMapper itemMapper;
 
     private UserDto makeUserDto(String name, String email) {
@@ -76,19 +84,19 @@ public class BookingServiceTest {
         UserDto requestedUser = makeUserDto("RequestedUser", "requestedUser@email.com");
         Long requestedUserId = userService.addUser(requestedUser).getId();
         BookingRequestDto firstBookingRequestDto = makeBookingRequestDto(
-                LocalDateTime.of(2025, 12, 21, 10, 0),
-                LocalDateTime.of(2025, 12, 22, 9, 0),
+                LocalDateTime.of(2030, 12, 21, 10, 0),
+                LocalDateTime.of(2030, 12, 22, 9, 0),
                 itemId);
         bookingService.addBooking(requestedUserId, firstBookingRequestDto);
         BookingRequestDto secondBookingRequestDto = makeBookingRequestDto(
-                LocalDateTime.of(2025, 12, 23, 11, 0),
-                LocalDateTime.of(2025, 12, 24, 10, 0),
+                LocalDateTime.of(2030, 12, 23, 11, 0),
+                LocalDateTime.of(2030, 12, 24, 10, 0),
                 itemId);
         Long secondBookingId = bookingService.addBooking(requestedUserId, secondBookingRequestDto).getId();
         bookingService.approveBooking(ownerId, secondBookingId, true);
         BookingRequestDto thirdBookingRequestDto = makeBookingRequestDto(
-                LocalDateTime.of(2025, 12, 25, 12, 0),
-                LocalDateTime.of(2025, 12, 26, 11, 0),
+                LocalDateTime.of(2030, 12, 25, 12, 0),
+                LocalDateTime.of(2030, 12, 26, 11, 0),
                 itemId);
         Long thirdBookingId = bookingService.addBooking(requestedUserId, thirdBookingRequestDto).getId();
         bookingService.approveBooking(ownerId, thirdBookingId, false);
@@ -96,6 +104,7 @@ public class BookingServiceTest {
 
     @AfterEach
     public void clear() {
+        bookingRepository.deleteAll();
         itemService.deleteAllItems();
         userService.deleteAllUsers();
     }
@@ -106,20 +115,63 @@ public class BookingServiceTest {
         Long requestedUserId = getRequestedUserId();
         Long requestedItemId = getRequestedItemId();
 
-        List<BookingResponseDto> allUserBooking = bookingService.getAllUserBookings(requestedUserId, BookingFilter.ALL);
+        List<BookingResponseDto> allUserBooking = bookingService.getAllUserBookings(requestedUserId, BookingFilter.ALL,
+                null, null, 10);
         assertThat(allUserBooking.size(), equalTo(3));
-        assertThat(allUserBooking.get(0).getStatus(), equalTo(BookingStatus.WAITING));
+        assertThat(allUserBooking.get(0).getStatus(), equalTo(BookingStatus.REJECTED));
+        assertThat(allUserBooking.get(2).getStatus(), equalTo(BookingStatus.WAITING));
         assertThat(allUserBooking.get(0).getBooker(), equalTo(userService.getUserById(requestedUserId)));
         assertThat(allUserBooking.get(0).getItem(), equalTo(itemService.getItemById(requestedItemId)));
 
-        List<BookingResponseDto> futureUserBooking = bookingService.getAllUserBookings(requestedUserId, BookingFilter.FUTURE);
+        List<BookingResponseDto> futureUserBooking = bookingService.getAllUserBookings(requestedUserId, BookingFilter.FUTURE,
+                null, null, 10);
         assertThat(futureUserBooking.size(), equalTo(3));
-        assertThat(futureUserBooking.get(0).getStatus(), equalTo(BookingStatus.WAITING));
+        assertThat(futureUserBooking.get(0).getStart(), equalTo(LocalDateTime.of(2030, 12, 25, 12, 0)));
+        assertThat(futureUserBooking.get(0).getStatus(), equalTo(BookingStatus.REJECTED));
         assertThat(futureUserBooking.get(0).getBooker(), equalTo(userService.getUserById(requestedUserId)));
         assertThat(futureUserBooking.get(0).getItem(), equalTo(itemService.getItemById(requestedItemId)));
 
-        List<BookingResponseDto> currentUserBooking = bookingService.getAllUserBookings(requestedUserId, BookingFilter.CURRENT);
+        List<BookingResponseDto> currentUserBooking = bookingService.getAllUserBookings(requestedUserId, BookingFilter.CURRENT,
+                null, null, 10);
         assertThat(currentUserBooking.size(), equalTo(0));
+
+        List<BookingResponseDto> pastUserBooking = bookingService.getAllUserBookings(requestedUserId, BookingFilter.PAST,
+                null, null, 10);
+        assertThat(pastUserBooking.size(), equalTo(0));
+
+        List<BookingResponseDto> waitingUserBooking = bookingService.getAllUserBookings(requestedUserId, BookingFilter.WAITING,
+                null, null, 10);
+        assertThat(waitingUserBooking.size(), equalTo(1));
+    }
+
+    @Test
+    public void shouldGetUserBookingsPageByPage() {
+        Long requestedUserId = getRequestedUserId();
+        Long ownerId = getOwnerId();
+
+        List<BookingResponseDto> firstPage = bookingService.getAllUserBookings(requestedUserId, BookingFilter.ALL,
+                null, null, 2);
+        assertThat(firstPage.size(), equalTo(2));
+        assertThat(firstPage.get(0).getStart(), equalTo(LocalDateTime.of(2030, 12, 25, 12, 0)));
+        assertThat(firstPage.get(1).getStart(), equalTo(LocalDateTime.of(2030, 12, 23, 11, 0)));
+
+        BookingResponseDto lastOnFirstPage = firstPage.get(1);
+        List<BookingResponseDto> secondPage = bookingService.getAllUserBookings(requestedUserId, BookingFilter.ALL,
+                lastOnFirstPage.getStart(), lastOnFirstPage.getId(), 2);
+        assertThat(secondPage.size(), equalTo(1));
+        assertThat(secondPage.get(0).getStart(), equalTo(LocalDateTime.of(2030, 12, 21, 10, 0)));
+
+        List<BookingResponseDto> ownerSecondPage = bookingService.getAllItemBookings(ownerId, BookingFilter.FUTURE,
+                lastOnFirstPage.getStart(), lastOnFirstPage.getId(), 2);
+        assertThat(ownerSecondPage.size(), equalTo(1));
+        assertThat(ownerSecondPage.get(0).getId(), equalTo(secondPage.get(0).getId()));
+
+        Assertions.assertThrowsExactly(ValidationException.class, () -> bookingService.getAllUserBookings(
+                requestedUserId, BookingFilter.ALL, lastOnFirstPage.getStart(), null, 2));
+        Assertions.assertThrowsExactly(ValidationException.class, () -> bookingService.getAllUserBookings(
+                requestedUserId, BookingFilter.ALL, null, null, 0));
+        Assertions.assertThrowsExactly(ValidationException.class, () -> bookingService.getAllUserBookings(
+                requestedUserId, BookingFilter.ALL, null, null, KeysetPages.MAX_SIZE + 1));
     }
 
     @Test
@@ -136,24 +188,85 @@ public class BookingServiceTest {
         Thread.sleep(1000);
 
 
-        List<BookingResponseDto> waitingOwnerBooking = bookingService.getAllItemBookings(ownerId, BookingFilter.WAITING);
+        List<BookingResponseDto> waitingOwnerBooking = bookingService.getAllItemBookings(ownerId, BookingFilter.WAITING,
+                null, null, 10);
         assertThat(waitingOwnerBooking.size(), equalTo(2));
         assertThat(waitingOwnerBooking.get(0).getStatus(), equalTo(BookingStatus.WAITING));
         assertThat(waitingOwnerBooking.get(0).getBooker(), equalTo(userService.getUserById(requestedUserId)));
         assertThat(waitingOwnerBooking.get(0).getItem().getId(), equalTo(requestedItemId));
 
-        List<BookingResponseDto> rejectedOwnerBooking = bookingService.getAllItemBookings(ownerId, BookingFilter.REJECTED);
+        List<BookingResponseDto> rejectedOwnerBooking = bookingService.getAllItemBookings(ownerId, BookingFilter.REJECTED,
+                null, null, 10);
         assertThat(rejectedOwnerBooking.size(), equalTo(1));
         assertThat(rejectedOwnerBooking.get(0).getStatus(), equalTo(BookingStatus.REJECTED));
         assertThat(rejectedOwnerBooking.get(0).getBooker(), equalTo(userService.getUserById(requestedUserId)));
         assertThat(rejectedOwnerBooking.get(0).getItem().getId(), equalTo(requestedItemId));
         assertThat(rejectedOwnerBooking.get(0).getStart(), equalTo(
-                LocalDateTime.of(2025, 12, 25, 12, 0)));
+                LocalDateTime.of(2030, 12, 25, 12, 0)));
         assertThat(rejectedOwnerBooking.get(0).getEnd(), equalTo(
-                LocalDateTime.of(2025, 12, 26, 11, 0)));
+                LocalDateTime.of(2030, 12, 26, 11, 0)));
+
+        List<BookingResponseDto> allOwnerBooking = bookingService.getAllItemBookings(ownerId, BookingFilter.ALL,
+                null, null, 10);
+        assertThat(allOwnerBooking.size(), equalTo(4));
+    }
+
+    @Test
+    public void shouldGetAllItemBookingsOfSeveralItemsSortedByStart() {
+        Long ownerId = getOwnerId();
+        Long requestedUserId = getRequestedUserId();
+        Long secondItemId = itemService.addItem(makeItemDto("SecondItem", "second item description", true), ownerId)
+                .getId();
+        bookingService.addBooking(requestedUserId, makeBookingRequestDto(
+                LocalDateTime.of(2030, 12, 24, 12, 0),
+                LocalDateTime.of(2030, 12, 24, 18, 0),
+                secondItemId));
+
+        List<BookingResponseDto> allOwnerBooking = bookingService.getAllItemBookings(ownerId, BookingFilter.ALL,
+                null, null, 10);
+        assertThat(allOwnerBooking.size(), equalTo(4));
+        assertThat(allOwnerBooking.get(1).getItem().getId(), equalTo(secondItemId));
+        for (int i = 1; i < allOwnerBooking.size(); i++) {
+            Assertions.assertTrue(allOwnerBooking.get(i - 1).getStart().isAfter(allOwnerBooking.get(i).getStart()));
+        }
+
+        List<BookingResponseDto> futureOwnerBooking = bookingService.getAllItemBookings(ownerId, BookingFilter.FUTURE,
+                null, null, 10);
+        assertThat(futureOwnerBooking.size(), equalTo(4));
+        assertThat(bookingService.getAllItemBookings(ownerId, BookingFilter.CURRENT, null, null, 10), empty());
+
+        Assertions.assertThrowsExactly(NotFoundException.class, () -> bookingService.getAllItemBookings(
+                requestedUserId, BookingFilter.ALL, null, null, 10));
+    }
+
+    @Test
+    public void shouldFillLastAndNextBookingsForOwner() throws InterruptedException {
+        Long ownerId = getOwnerId();
+        Long requestedUserId = getRequestedUserId();
+        Long requestedItemId = getRequestedItemId();
+
+        BookingRequestDto lastBookingRequestDto = makeBookingRequestDto(
+                LocalDateTime.now().plusSeconds(1), LocalDateTime.now().plusSeconds(2), requestedItemId);
+        Long lastBookingId = bookingService.addBooking(requestedUserId, lastBookingRequestDto).getId();
+        Thread.sleep(1000);
 
-        List<BookingResponseDto> allOwnerBooking = bookingService.getAllItemBookings(ownerId, BookingFilter.ALL);
+        Booking nextBooking = bookingService.findNextItemBooking(
+                itemMapper.itemDtoToItem(itemService.getItemById(requestedItemId)));
+        List<BookingResponseDto> allOwnerBooking = bookingService.getAllItemBookings(ownerId, BookingFilter.ALL,
+                null, null, 10);
         assertThat(allOwnerBooking.size(), equalTo(4));
+        for (BookingResponseDto booking : allOwnerBooking) {
+            assertThat(booking.getItem().getLastBooking(), equalTo(lastBookingId));
+            assertThat(booking.getItem().getNextBooking(), equalTo(nextBooking.getId()));
+            assertThat(booking.getItem().getComments(), empty());
+        }
+
+        List<BookingResponseDto> allUserBooking = bookingService.getAllUserBookings(requestedUserId, BookingFilter.ALL,
+                null, null, 10);
+        for (BookingResponseDto booking : allUserBooking) {
+            assertThat(booking.getItem().getLastBooking(), nullValue());
+            assertThat(booking.getItem().getNextBooking(), nullValue());
+        }
     }
 
     @Test
@@ -189,6 +302,43 @@ public class BookingServiceTest {
         assertThat(userService.getUserById(requestedUserId), equalTo(booking.getBooker()));
     }
 
+    @Test
+    public void shouldRejectOverlappingBookings() {
+        Long ownerId = getOwnerId();
+        Long requestedItemId = getRequestedItemId();
+        Long requestedUserId = getRequestedUserId();
+        BookingRequestDto overlapsApproved = makeBookingRequestDto(
+                LocalDateTime.of(2030, 12, 24, 9, 0),
+                LocalDateTime.of(2030, 12, 24, 12, 0),
+                requestedItemId);
+        Assertions.assertThrowsExactly(BookingOverlapException.class, () -> bookingService.addBooking(
+                requestedUserId, overlapsApproved));
+
+        BookingRequestDto adjacentToApproved = makeBookingRequestDto(
+                LocalDateTime.of(2030, 12, 24, 10, 0),
+                LocalDateTime.of(2030, 12, 24, 12, 0),
+                requestedItemId);
+        Long adjacentBookingId = bookingService.addBooking(requestedUserId, adjacentToApproved).getId();
+        assertThat(bookingService.approveBooking(ownerId, adjacentBookingId, true).getStatus(),
+                equalTo(BookingStatus.APPROVED));
+
+        BookingRequestDto firstWaiting = makeBookingRequestDto(
+                LocalDateTime.of(2031, 1, 10, 10, 0),
+                LocalDateTime.of(2031, 1, 12, 10, 0),
+                requestedItemId);
+        BookingRequestDto secondWaiting = makeBookingRequestDto(
+                LocalDateTime.of(2031, 1, 11, 10, 0),
+                LocalDateTime.of(2031, 1, 13, 10, 0),
+                requestedItemId);
+        Long firstWaitingId = bookingService.addBooking(requestedUserId, firstWaiting).getId();
+        Long secondWaitingId = bookingService.addBooking(requestedUserId, secondWaiting).getId();
+        bookingService.approveBooking(ownerId, firstWaitingId, true);
+        Assertions.assertThrowsExactly(BookingOverlapException.class, () -> bookingService.approveBooking(
+                ownerId, secondWaitingId, true));
+        assertThat(bookingService.approveBooking(ownerId, secondWaitingId, false).getStatus(),
+                equalTo(BookingStatus.REJECTED));
+    }
+
     @Test
     public void shouldApproveBooking() {
         Long ownerId = getOwnerId();
@@ -202,6 +352,7 @@ public class BookingServiceTest {
 
         BookingResponseDto firstBookingAfterApprove = bookingService.approveBooking(ownerId, waitingBookingId, true);
         assertThat(firstBookingAfterApprove.getStatus(), equalTo(BookingStatus.APPROVED));
+        assertThat(em.find(Booking.class, waitingBookingId).getVersion(), equalTo(1L));
 
         Assertions.assertThrowsExactly(ForbidenForUserOperationException.class, () -> bookingService.approveBooking(
                 requestedUserId, waitingBookingId, true));
@@ -210,6 +361,69 @@ public class BookingServiceTest {
                 requestedUserId, 1000L, true));
     }
 
+    @Test
+    public void shouldNotChangeDecidedBooking() {
+        Long ownerId = getOwnerId();
+        Long requestedItemId = getRequestedItemId();
+        Long requestedUserId = getRequestedUserId();
+        Long bookingId = bookingService.addBooking(requestedUserId, makeBookingRequestDto(
+                LocalDateTime.of(2029, 12, 21, 10, 0),
+                LocalDateTime.of(2029, 12, 22, 9, 0),
+                requestedItemId)).getId();
+
+        assertThat(bookingService.approveBooking(ownerId, bookingId, false).getStatus(),
+                equalTo(BookingStatus.REJECTED));
+        Assertions.assertThrowsExactly(BookingUpdateConflictException.class, () -> bookingService.approveBooking(
+                ownerId, bookingId, true));
+        Assertions.assertThrowsExactly(BookingUpdateConflictException.class, () -> bookingService.approveBooking(
+                ownerId, bookingId, false));
+        assertThat(bookingService.getBookingById(requestedUserId, bookingId).getStatus(),
+                equalTo(BookingStatus.REJECTED));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void shouldKeepFirstDecisionOnConcurrentApproveAndReject() throws Exception {
+        Long ownerId = getOwnerId();
+        Long requestedItemId = getRequestedItemId();
+        Long requestedUserId = getRequestedUserId();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 10; round++) {
+                Long bookingId = bookingService.addBooking(requestedUserId, makeBookingRequestDto(
+                        LocalDateTime.of(2032, 1, 1, 10, 0).plusDays(round),
+                        LocalDateTime.of(2032, 1, 1, 18, 0).plusDays(round),
+                        requestedItemId)).getId();
+                CountDownLatch start = new CountDownLatch(1);
+                Future<BookingResponseDto> approve = executor.submit(() -> {
+                    start.await();
+                    return bookingService.approveBooking(ownerId, bookingId, true);
+                });
+                Future<BookingResponseDto> reject = executor.submit(() -> {
+                    start.await();
+                    return bookingService.approveBooking(ownerId, bookingId, false);
+                });
+                start.countDown();
+
+                BookingStatus winnerStatus = null;
+                int conflicts = 0;
+                for (Future<BookingResponseDto> decision : List.of(approve, reject)) {
+                    try {
+                        winnerStatus = decision.get(10, TimeUnit.SECONDS).getStatus();
+                    } catch (ExecutionException e) {
+                        assertThat(e.getCause(), instanceOf(BookingUpdateConflictException.class));
+                        conflicts++;
+                    }
+                }
+                assertThat(conflicts, equalTo(1));
+                assertThat(bookingService.getBookingById(requestedUserId, bookingId).getStatus(),
+                        equalTo(winnerStatus));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void shouldGetItemAllBookings() {
         Item requestedItem = itemMapper.itemDtoToItem(itemService.getItemById(getRequestedItemId()));
@@ -219,6 +433,12 @@ public class BookingServiceTest {
         assertThat(futureItemBookings.get(0).getStatus(), equalTo(BookingStatus.REJECTED));
         assertThat(futureItemBookings.get(0).getRequestedItem().getId(), equalTo(requestedItem.getId()));
 
+        List<Booking> timeFilteredItemBookings = bookingService.getItemAllBookings(requestedItem, BookingFilter.FUTURE);
+        assertThat(timeFilteredItemBookings.size(), equalTo(3));
+        assertThat(timeFilteredItemBookings.get(0).getStart(), equalTo(LocalDateTime.of(2030, 12, 25, 12, 0)));
+        assertThat(bookingService.getItemAllBookings(requestedItem, BookingFilter.CURRENT), empty());
+        assertThat(bookingService.getItemAllBookings(requestedItem, BookingFilter.PAST), empty());
+
         BookingFilter bookingFilter = BookingFilter.from("UNDEFINED");
     }
 
@@ -246,8 +466,8 @@ public class BookingServiceTest {
 
         Booking nextItemBooking = bookingService.findNextItemBooking(requestedItem);
         assertThat(requestedItem.getId(), equalTo(nextItemBooking.getRequestedItem().getId()));
-        assertThat(LocalDateTime.of(2025, 12, 21, 10, 0), equalTo(nextItemBooking.getStart()));
-        assertThat(LocalDateTime.of(2025, 12, 22, 9, 0), equalTo(nextItemBooking.getEnd()));
+        assertThat(LocalDateTime.of(2030, 12, 21, 10, 0), equalTo(nextItemBooking.getStart()));
+        assertThat(LocalDateTime.of(2030, 12, 22, 9, 0), equalTo(nextItemBooking.getEnd()));
     }
 
 
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.integration;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.dataset.DatasetGenerator;
+import ru.practicum.shareit.item.ItemServiceImpl;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserServiceImpl;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+@ActiveProfiles("dataset")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "shareit.dataset.users=100",
+        "shareit.dataset.items=500",
+        "shareit.dataset.bookings=2000",
+        "shareit.dataset.comments=1000",
+        "shareit.dataset.requests=200",
+        "shareit.dataset.batch-size=64"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class DatasetGeneratorTest {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatasetGenerator datasetGenerator;
+    private final UserServiceImpl userService;
+    private final ItemServiceImpl itemService;
+
+
+    @Test
+    public void shouldGenerateConfiguredNumberOfRowsWithSkewedOwners() {
+        assertThat(count("SELECT COUNT(*) FROM users"), equalTo(100L));
+        assertThat(count("SELECT COUNT(*) FROM items"), equalTo(500L));
+        assertThat(count("SELECT COUNT(*) FROM bookings"), equalTo(2000L));
+        assertThat(count("SELECT COUNT(*) FROM comments"), equalTo(1000L));
+        assertThat(count("SELECT COUNT(*) FROM requests"), equalTo(200L));
+
+        assertThat(count("SELECT COUNT(*) FROM items WHERE owner_id <= 10"), greaterThan(250L));
+        assertThat(count("SELECT COUNT(*) FROM bookings b JOIN items i ON b.item_id = i.id "
+                + "WHERE b.user_id = i.owner_id"), equalTo(0L));
+        assertThat(count("SELECT MAX(c) FROM (SELECT COUNT(*) AS c FROM comments GROUP BY item_id)"),
+                greaterThan(50L));
+    }
+
+    @Test
+    public void shouldGenerateSameDataForSameSeed() {
+        List<Map<String, Object>> items = jdbcTemplate.queryForList("SELECT * FROM items ORDER BY id");
+        List<Map<String, Object>> bookings = jdbcTemplate.queryForList("SELECT * FROM bookings ORDER BY id");
+
+        regenerate();
+
+        Assertions.assertEquals(items, jdbcTemplate.queryForList("SELECT * FROM items ORDER BY id"));
+        Assertions.assertEquals(bookings, jdbcTemplate.queryForList("SELECT * FROM bookings ORDER BY id"));
+    }
+
+    @Test
+    public void shouldSaveNewEntitiesAfterGeneratedOnes() {
+        UserDto userDto = new UserDto();
+        userDto.setName("NewUser");
+        userDto.setEmail("newUser@email.com");
+        UserDto user = userService.addUser(userDto);
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("Дрель");
+        itemDto.setDescription("Новая дрель");
+        itemDto.setAvailable(true);
+        ItemDto item = itemService.addItem(itemDto, user.getId());
+
+        assertThat(user.getId(), greaterThan(100L));
+        assertThat(item.getId(), equalTo(501L));
+
+        regenerate();
+    }
+
+
+    private void regenerate() {
+        for (String table : List.of("bookings", "comments", "requests", "items", "users")) {
+            jdbcTemplate.execute("DELETE FROM " + table);
+        }
+        datasetGenerator.run(null);
+    }
+
+    private Long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+}
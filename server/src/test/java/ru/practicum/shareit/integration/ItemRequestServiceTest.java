@@ -10,6 +10,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.errors.ValidationException;
+import ru.practicum.shareit.item.ItemServiceImpl;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.pagination.KeysetPages;
 import ru.practicum.shareit.request.ItemRequestServiceImpl;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
@@ -22,6 +26,7 @@ import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 
 @Transactional
@@ -32,6 +37,7 @@ public class ItemRequestServiceTest {
     private final EntityManager em;
     private final UserServiceImpl userService;
     private final ItemRequestServiceImpl requestService;
+    private final ItemServiceImpl itemService;
 
     private UserDto makeUserDto(String name, String email) {
         UserDto dto = new UserDto();
@@ -46,6 +52,15 @@ public class ItemRequestServiceTest {
         return requestDto;
     }
 
+    private ItemDto makeItemDto(String name, Long requestId) {
+        ItemDto dto = new ItemDto();
+        dto.setName(name);
+        dto.setDescription(name + " description");
+        dto.setAvailable(true);
+        dto.setRequestId(requestId);
+        return dto;
+    }
+
     @BeforeEach
     public void initData() {
         UserDto firstUserDto = makeUserDto("FirstUser", "firstUser@email.com");
@@ -62,6 +77,7 @@ public class ItemRequestServiceTest {
     @AfterEach
     public void clear() {
         requestService.deleteAllRequests();
+        itemService.deleteAllItems();
         userService.deleteAllUsers();
     }
 
@@ -69,7 +85,8 @@ public class ItemRequestServiceTest {
     public void shouldGetAllAnotherUserRequests() {
         Long firstuserId = getFirstUserId();
 
-        List<ItemRequestResponseDto> anotherUserRequests = requestService.getAllAnotherUserRequests(firstuserId);
+        List<ItemRequestResponseDto> anotherUserRequests = requestService.getAllAnotherUserRequests(firstuserId,
+                null, null, 10);
         assertThat(anotherUserRequests.size(), equalTo(1));
         assertThat(anotherUserRequests.get(0).getId(), notNullValue());
         assertThat(anotherUserRequests.get(0).getDescription(), equalTo("Second item request"));
@@ -77,6 +94,32 @@ public class ItemRequestServiceTest {
         assertThat(anotherUserRequests.get(0).getCreationDate(), notNullValue());
     }
 
+    @Test
+    public void shouldGetAllAnotherUserRequestsPageByPage() {
+        Long firstuserId = getFirstUserId();
+        Long thirdUserId = userService.addUser(makeUserDto("ThirdUser", "thirdUser@email.com")).getId();
+        requestService.addRequest(makeRequestDto("Third item request"), thirdUserId);
+        requestService.addRequest(makeRequestDto("Fourth item request"), thirdUserId);
+
+        List<ItemRequestResponseDto> firstPage = requestService.getAllAnotherUserRequests(firstuserId, null, null, 2);
+        assertThat(firstPage.size(), equalTo(2));
+        assertThat(firstPage.get(0).getDescription(), equalTo("Fourth item request"));
+        assertThat(firstPage.get(1).getDescription(), equalTo("Third item request"));
+
+        ItemRequestResponseDto lastOnPage = firstPage.get(1);
+        List<ItemRequestResponseDto> secondPage = requestService.getAllAnotherUserRequests(firstuserId,
+                lastOnPage.getCreationDate(), lastOnPage.getId(), 2);
+        assertThat(secondPage.size(), equalTo(1));
+        assertThat(secondPage.get(0).getDescription(), equalTo("Second item request"));
+
+        Assertions.assertThrowsExactly(ValidationException.class, () -> requestService.getAllAnotherUserRequests(
+                firstuserId, null, lastOnPage.getId(), 2));
+        Assertions.assertThrowsExactly(ValidationException.class, () -> requestService.getAllAnotherUserRequests(
+                firstuserId, null, null, 0));
+        Assertions.assertThrowsExactly(ValidationException.class, () -> requestService.getAllAnotherUserRequests(
+                firstuserId, null, null, KeysetPages.MAX_SIZE + 1));
+    }
+
     @Test
     public void shouldGetOnlyThisUserRequests() {
         Long firstuserId = getFirstUserId();
@@ -117,6 +160,30 @@ public class ItemRequestServiceTest {
         Assertions.assertTrue(firstUserRequestsAfter.contains(thirdRequest));
     }
 
+    @Test
+    public void shouldChangeRequestTagWhenAnswerOrAnsweringItemChanges() {
+        Long firstUserId = getFirstUserId();
+        Long secondRequestId = getSecondRequestId();
+        String tag = requestService.getRequestTag(secondRequestId);
+        assertThat(tag, notNullValue());
+
+        Long firstItemId = itemService.addItem(makeItemDto("FirstAnswer", secondRequestId), firstUserId).getId();
+        String answeredTag = requestService.getRequestTag(secondRequestId);
+        assertThat(answeredTag, not(equalTo(tag)));
+
+        ItemDto rename = new ItemDto();
+        rename.setName("FirstAnswerRenamed");
+        itemService.editItem(firstItemId, rename, firstUserId);
+        String editedTag = requestService.getRequestTag(secondRequestId);
+        assertThat(editedTag, not(equalTo(answeredTag)));
+
+        itemService.addItem(makeItemDto("SecondAnswer", secondRequestId), firstUserId);
+        String reansweredTag = requestService.getRequestTag(secondRequestId);
+        assertThat(reansweredTag, not(equalTo(editedTag)));
+        assertThat(reansweredTag, not(equalTo(answeredTag)));
+        assertThat(requestService.getRequestTag(secondRequestId), equalTo(reansweredTag));
+    }
+
 
     private Long getFirstUserId() {
         TypedQuery<User> userQuery = em.createQuery("Select u from User u where u.name = :name and u.email = :email",
@@ -128,4 +195,13 @@ public class ItemRequestServiceTest {
         return firstuser.getId();
     }
 
+    private Long getSecondRequestId() {
+        TypedQuery<ItemRequest> requestQuery = em.createQuery("Select r from ItemRequest r where description =:description",
+                ItemRequest.class);
+        return requestQuery
+                .setParameter("description", "Second item request")
+                .getSingleResult()
+                .getId();
+    }
+
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.integration;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
@@ -9,15 +10,28 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.BookingServiceImpl;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.errors.BookingUpdateConflictException;
 import ru.practicum.shareit.errors.ForbidenForUserOperationException;
+import ru.practicum.shareit.errors.NotFoundException;
 import ru.practicum.shareit.errors.ParameterNotValidException;
 import ru.practicum.shareit.errors.ValidationException;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.item.DatabaseItemSearcher;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchIndex;
+import ru.practicum.shareit.item.ItemSearchIndexResync;
+import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.item.ItemServiceImpl;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequestService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -25,8 +39,12 @@ import ru.practicum.shareit.user.UserServiceImpl;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.LongStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -38,9 +56,15 @@ public class ItemServiceTest {
 
     private final EntityManager em;
     private final ItemServiceImpl itemService;
+    private final ItemRepository itemRepository;
+    private final MeterRegistry meterRegistry;
     private final UserServiceImpl userService;
     private final BookingServiceImpl bookingService;
     private final ItemRequestService requestService;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearchIndexResync itemSearchIndexResync;
 
     private UserDto makeUserDto(String name, String email) {
         UserDto dto = new UserDto();
@@ -107,6 +131,24 @@ public class ItemServiceTest {
         assertThat(savedItemDto.getAvailable(), equalTo(item.getAvailable()));
     }
 
+    @Test
+    public void shouldGetItemsByIds() {
+        Long ownerId = getOwnerId();
+        Long secondItemId = itemService.addItem(makeItemDto("SecondItem", "second item description", true), ownerId)
+                .getId();
+        Long thirdItemId = itemService.addItem(makeItemDto("ThirdItem", "third item description", false), ownerId)
+                .getId();
+
+        List<ItemDto> items = itemService.getItemsByIds(List.of(thirdItemId, 1000L, secondItemId, thirdItemId));
+        assertThat(items.stream().map(ItemDto::getId).toList(), contains(thirdItemId, secondItemId));
+        assertThat(items.getFirst().getName(), equalTo("ThirdItem"));
+        assertThat(items.getFirst().getAvailable(), equalTo(false));
+        assertThat(itemService.getItemsByIds(List.of()), empty());
+
+        List<Long> tooManyIds = LongStream.rangeClosed(1, ItemService.MAX_BATCH_SIZE + 1).boxed().toList();
+        Assertions.assertThrowsExactly(ValidationException.class, () -> itemService.getItemsByIds(tooManyIds));
+    }
+
     @Test
     public void shouldAddItem() {
         ItemDto addedItemDto = makeItemDto("AddedItem", "added item description", true);
@@ -139,6 +181,46 @@ public class ItemServiceTest {
         Assertions.assertThrowsExactly(ValidationException.class, () -> itemService.addItem(itemOnNotExistRequest, ownerId));
     }
 
+    @Test
+    public void shouldImportItems() {
+        Long ownerId = getOwnerId();
+        ItemRequestDto requestDto = new ItemRequestDto();
+        requestDto.setDescription("imported item request");
+        Long requestId = requestService.addRequest(requestDto, ownerId).getId();
+        String array = "[{\"name\": \"Дрель\", \"description\": \"ударная\", \"available\": true},"
+                + "{\"name\": \"\", \"description\": \"без названия\", \"available\": true},"
+                + "{\"name\": \"Пила\", \"description\": \"цепная\", \"available\": \"maybe\"},"
+                + "{\"name\": \"Лестница\", \"description\": \"по запросу\", \"available\": false, "
+                + "\"requestId\": " + requestId + "},"
+                + "{\"name\": \"Палатка\", \"description\": \"нет запроса\", \"available\": true, "
+                + "\"requestId\": 1000},"
+                + "{\"name\": \"" + "Тент".repeat(129) + "\", \"description\": \"длинное название\", "
+                + "\"available\": true},"
+                + "{\"name\": \"Тент\", \"description\": \"" + "д".repeat(1025) + "\", \"available\": true}]";
+
+        ItemImportResultDto result = itemService.importItems(toStream(array), ownerId);
+        assertThat(result.getImported(), equalTo(2L));
+        assertThat(result.getFailed(), equalTo(5L));
+        assertThat(result.getErrors().stream().map(ItemImportResultDto.RowError::getRow).toList(),
+                contains(2L, 3L, 5L, 6L, 7L));
+        assertThat(itemService.getAllItems(ownerId).stream().map(ItemDto::getName).toList(),
+                containsInAnyOrder("FirstItem", "Дрель", "Лестница"));
+        assertThat(requestService.getRequestById(requestId).getItems().getFirst().getName(),
+                equalTo("Лестница"));
+        assertThat(itemService.findItems("ударная").size(), equalTo(1));
+
+        String ndjson = "{\"name\": \"Гриль\", \"description\": \"угольный\", \"available\": true}\n"
+                + "{\"name\": \"Мангал\", \"description\": \"складной\", \"available\": true}\n"
+                + "{\"name\": \"Самокат\", \"desc";
+        result = itemService.importItems(toStream(ndjson), ownerId);
+        assertThat(result.getImported(), equalTo(2L));
+        assertThat(result.getFailed(), equalTo(1L));
+        assertThat(result.getErrors().getFirst().getRow(), equalTo(3L));
+        assertThat(itemService.getAllItems(ownerId).size(), equalTo(5));
+
+        Assertions.assertThrowsExactly(NotFoundException.class, () -> itemService.importItems(toStream(array), 1000L));
+    }
+
     @Test
     public void shouldEditItem() {
         TypedQuery<Item> query = em.createQuery("Select i from Item i where i.name = :name and i.description = :description",
@@ -165,6 +247,7 @@ public class ItemServiceTest {
     }
 
     @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void shouldFindItems() {
         ItemDto foundedFirstItemDto = makeItemDto("FoundedItem", "1 item description", true);
         ItemDto foundedSecondItemDto = makeItemDto("AnotherItem", "founded item description", true);
@@ -180,6 +263,31 @@ public class ItemServiceTest {
         Assertions.assertThrowsExactly(ParameterNotValidException.class, () -> itemService.findItems(""));
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void shouldFindItemsByWordPrefixesRankedByRelevance() {
+        Long ownerId = getOwnerId();
+        ItemDto drill = itemService.addItem(makeItemDto("Дрель ударная", "мощная дрель для бетона", true), ownerId);
+        ItemDto drillSet = itemService.addItem(makeItemDto("Набор свёрл", "подходит к любой дрели", true), ownerId);
+        ItemDto hiddenDrill = itemService.addItem(makeItemDto("Дрель", "старая дрель", false), ownerId);
+
+        List<ItemDto> foundItems = itemService.findItems("дрел");
+        assertThat(foundItems.stream().map(ItemDto::getId).toList(), contains(drill.getId(), drillSet.getId()));
+
+        foundItems = itemService.findItems("ДРЕЛЬ бетон");
+        assertThat(foundItems.stream().map(ItemDto::getId).toList(), contains(drill.getId()));
+
+        ItemDto editedItem = new ItemDto();
+        editedItem.setAvailable(false);
+        itemService.editItem(drill.getId(), editedItem, ownerId);
+        editedItem.setAvailable(true);
+        itemService.editItem(hiddenDrill.getId(), editedItem, ownerId);
+
+        foundItems = itemService.findItems("дрел");
+        assertThat(foundItems.stream().map(ItemDto::getId).toList(), contains(hiddenDrill.getId(), drillSet.getId()));
+        assertThat(itemService.findItems("!!!"), empty());
+    }
+
     @Test
     public void shouldAddComment() throws InterruptedException {
         TypedQuery<Item> query = em.createQuery("Select i from Item i where i.name = :name and i.description = :description",
@@ -203,6 +311,7 @@ public class ItemServiceTest {
         CommentDto newComment = new CommentDto();
         newComment.setText("first comment");
         LocalDateTime beforeCreating = LocalDateTime.now();
+        String tagBeforeComment = itemService.getItemTag(commentedItemId);
 
         CommentDto comment = itemService.addComment(commentedItemId, newComment, authorId);
         assertThat(comment.getId(), notNullValue());
@@ -210,9 +319,218 @@ public class ItemServiceTest {
         assertThat(userService.getUserById(authorId).getName(), equalTo(comment.getAuthorName()));
         assertThat(firstItem.getName(), equalTo(comment.getCommentedItem()));
         Assertions.assertTrue(beforeCreating.isBefore(comment.getCreated()));
+
+        String tagAfterComment = itemService.getItemTag(commentedItemId);
+        assertThat(tagAfterComment, not(equalTo(tagBeforeComment)));
+        UserDto renamedAuthor = new UserDto();
+        renamedAuthor.setName("Renamed Author");
+        userService.updateUser(authorId, renamedAuthor);
+        assertThat(itemService.getItemTag(commentedItemId), not(equalTo(tagAfterComment)));
+    }
+
+    @Test
+    public void shouldChangeItemTagOnlyWhenItemChanges() {
+        Long ownerId = getOwnerId();
+        Long itemId = getFirstItemId();
+        String tag = itemService.getItemTag(itemId);
+        assertThat(tag, notNullValue());
+
+        itemService.getItemById(itemId);
+        itemService.addItem(makeItemDto("SecondItem", "second item description", true), ownerId);
+        assertThat(itemService.getItemTag(itemId), equalTo(tag));
+        assertThat(new EntityTags(jdbcTemplate).of(itemId, itemRepository.findVersionById(itemId).orElse(null)),
+                equalTo(tag));
+
+        ItemDto unchangedItem = new ItemDto();
+        unchangedItem.setName(itemService.getItemById(itemId).getName());
+        itemService.editItem(itemId, unchangedItem, ownerId);
+        assertThat(itemService.getItemTag(itemId), equalTo(tag));
+
+        ItemDto editedItem = new ItemDto();
+        editedItem.setDescription("edited description");
+        itemService.editItem(itemId, editedItem, ownerId);
+        assertThat(itemService.getItemTag(itemId), not(equalTo(tag)));
+        assertThat(itemService.getItemTag(1000L), nullValue());
+    }
+
+
+    @Test
+    public void shouldGetItemAvailability() {
+        Long ownerId = getOwnerId();
+        Long itemId = itemService.addItem(makeItemDto("CalendarItem", "calendar item description", true), ownerId)
+                .getId();
+        Long bookerId = userService.addUser(makeUserDto("Booker", "booker@email.com")).getId();
+        LocalDateTime from = LocalDateTime.of(2031, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2031, 1, 31, 0, 0);
+
+        List<FreeSlotDto> freeSlots = itemService.getItemAvailability(itemId, from, to);
+        assertThat(freeSlots, contains(new FreeSlotDto(from, to)));
+
+        LocalDateTime firstStart = LocalDateTime.of(2031, 1, 10, 12, 0);
+        LocalDateTime firstEnd = LocalDateTime.of(2031, 1, 12, 12, 0);
+        Long firstBookingId = bookingService.addBooking(bookerId, makeBookingRequestDto(firstStart, firstEnd, itemId))
+                .getId();
+        bookingService.approveBooking(ownerId, firstBookingId, true);
+        LocalDateTime secondStart = LocalDateTime.of(2031, 1, 20, 12, 0);
+        LocalDateTime secondEnd = LocalDateTime.of(2031, 1, 21, 12, 0);
+        Long secondBookingId = bookingService.addBooking(bookerId, makeBookingRequestDto(secondStart, secondEnd, itemId))
+                .getId();
+
+        freeSlots = itemService.getItemAvailability(itemId, from, to);
+        assertThat(freeSlots, contains(new FreeSlotDto(from, firstStart), new FreeSlotDto(firstEnd, to)));
+
+        bookingService.approveBooking(ownerId, secondBookingId, true);
+        freeSlots = itemService.getItemAvailability(itemId, from, to);
+        assertThat(freeSlots, contains(new FreeSlotDto(from, firstStart), new FreeSlotDto(firstEnd, secondStart),
+                new FreeSlotDto(secondEnd, to)));
+
+        freeSlots = itemService.getItemAvailability(itemId, firstStart.plusDays(1), secondEnd);
+        assertThat(freeSlots, contains(new FreeSlotDto(firstEnd, secondStart)));
+
+        Long rejectedBookingId = bookingService.addBooking(bookerId, makeBookingRequestDto(
+                secondEnd.plusDays(1), secondEnd.plusDays(2), itemId)).getId();
+        bookingService.approveBooking(ownerId, rejectedBookingId, false);
+        Assertions.assertThrowsExactly(BookingUpdateConflictException.class, () -> bookingService.approveBooking(
+                ownerId, firstBookingId, false));
+        freeSlots = itemService.getItemAvailability(itemId, from, to);
+        assertThat(freeSlots, contains(new FreeSlotDto(from, firstStart), new FreeSlotDto(firstEnd, secondStart),
+                new FreeSlotDto(secondEnd, to)));
+
+        Assertions.assertThrowsExactly(ValidationException.class, () -> itemService.getItemAvailability(
+                itemId, to, from));
+        Assertions.assertThrowsExactly(NotFoundException.class, () -> itemService.getItemAvailability(
+                1000L, from, to));
+    }
+
+    @Test
+    public void shouldRejectAvailabilityPeriodStartingInPast() throws InterruptedException {
+        Long ownerId = getOwnerId();
+        Long itemId = itemService.addItem(makeItemDto("CalendarItem", "calendar item description", true), ownerId)
+                .getId();
+        Long bookerId = userService.addUser(makeUserDto("Booker", "booker@email.com")).getId();
+        LocalDateTime bookingStart = LocalDateTime.now().plusSeconds(1);
+        Long bookingId = bookingService.addBooking(bookerId, makeBookingRequestDto(bookingStart,
+                bookingStart.plusNanos(500_000_000), itemId)).getId();
+        bookingService.approveBooking(ownerId, bookingId, true);
+        Thread.sleep(2000);
+
+        LocalDateTime to = LocalDateTime.now().plusDays(1);
+        Assertions.assertThrowsExactly(ValidationException.class, () -> itemService.getItemAvailability(
+                itemId, bookingStart.minusMinutes(1), to));
+
+        List<FreeSlotDto> freeSlots = itemService.getItemAvailability(itemId, null, to);
+        assertThat(freeSlots, hasSize(1));
+        Assertions.assertTrue(freeSlots.get(0).getStart().isAfter(bookingStart));
+    }
+
+
+    @Test
+    public void shouldFindItemsChangedByOtherServerAfterIndexResync() {
+        Long itemId = getFirstItemId();
+        Item item = itemRepository.findById(itemId).get();
+        item.setName("Перфоратор");
+        itemRepository.saveAndFlush(item);
+        assertThat(itemService.findItems("перфоратор"), empty());
+
+        itemSearchIndexResync.resync();
+        assertThat(itemService.findItems("перфоратор").stream().map(ItemDto::getId).toList(), contains(itemId));
+        assertThat(itemService.findItems("FirstItem"), empty());
+        assertThat(itemSearchIndex.rebuild(), equalTo(false));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void shouldCacheFoundItemsUntilMatchingItemChanges() {
+        Long ownerId = getOwnerId();
+        ItemDto drill = itemService.addItem(makeItemDto("Дрель", "ударная дрель", true), ownerId);
+        double hitsBefore = getSearchCacheHits();
+
+        List<ItemDto> foundItems = itemService.findItems("Дрель");
+        assertThat(foundItems.stream().map(ItemDto::getId).toList(), contains(drill.getId()));
+        Assertions.assertSame(foundItems, itemService.findItems("  дрель "));
+        assertThat(getSearchCacheHits() - hitsBefore, equalTo(1.0));
+
+        ItemDto unrelatedChange = new ItemDto();
+        unrelatedChange.setName("Пила");
+        itemService.editItem(getFirstItemId(), unrelatedChange, ownerId);
+        Assertions.assertSame(foundItems, itemService.findItems("дрель"));
+
+        ItemDto anotherDrill = itemService.addItem(makeItemDto("Дрель-шуруповёрт", "аккумуляторная", true), ownerId);
+        foundItems = itemService.findItems("дрель");
+        assertThat(foundItems.stream().map(ItemDto::getId).toList(), contains(drill.getId(), anotherDrill.getId()));
+
+        ItemDto hiddenDrill = new ItemDto();
+        hiddenDrill.setAvailable(false);
+        itemService.editItem(drill.getId(), hiddenDrill, ownerId);
+        foundItems = itemService.findItems("дрель");
+        assertThat(foundItems.stream().map(ItemDto::getId).toList(), contains(anotherDrill.getId()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void shouldNotIndexRolledBackItemChanges() {
+        Long ownerId = getOwnerId();
+        ItemDto drill = itemService.addItem(makeItemDto("Дрель", "ударная дрель", true), ownerId);
+        ItemDto saw = new ItemDto();
+        saw.setName("Пила");
+        saw.setDescription("цепная пила");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            itemService.editItem(drill.getId(), saw, ownerId);
+            status.setRollbackOnly();
+        });
+        assertThat(itemService.findItems("дрель").stream().map(ItemDto::getId).toList(), contains(drill.getId()));
+        assertThat(itemService.findItems("пила"), empty());
+
+        itemService.editItem(drill.getId(), saw, ownerId);
+        assertThat(itemService.findItems("дрель"), empty());
+        assertThat(itemService.findItems("пила").stream().map(ItemDto::getId).toList(), contains(drill.getId()));
+    }
+
+    @Test
+    public void shouldSearchItemsInDatabase() {
+        Long ownerId = getOwnerId();
+        ItemDto drill = itemService.addItem(makeItemDto("Дрель ударная", "мощная дрель для бетона", true), ownerId);
+        ItemDto drillSet = itemService.addItem(makeItemDto("Набор свёрл", "подходит к любой ДРЕЛИ", true), ownerId);
+        itemService.addItem(makeItemDto("Дрель", "старая дрель", false), ownerId);
+        itemService.addItem(makeItemDto("Скидка 100%", "только сегодня", true), ownerId);
+        DatabaseItemSearcher searcher = new DatabaseItemSearcher(itemRepository);
+
+        List<Item> foundItems = searcher.search("дрел");
+        assertThat(foundItems.stream().map(Item::getId).toList(), contains(drill.getId(), drillSet.getId()));
+
+        foundItems = searcher.search("рел");
+        assertThat(foundItems.stream().map(Item::getId).toList(), contains(drill.getId(), drillSet.getId()));
+
+        assertThat(searcher.search("0%"), hasSize(1));
+        assertThat(searcher.search("_"), empty());
     }
 
 
+    private BookingRequestDto makeBookingRequestDto(LocalDateTime start, LocalDateTime end, Long itemId) {
+        BookingRequestDto dto = new BookingRequestDto();
+        dto.setStart(start);
+        dto.setEnd(end);
+        dto.setItemId(itemId);
+        return dto;
+    }
+
+    private double getSearchCacheHits() {
+        return meterRegistry.get("cache.gets").tag("cache", "itemSearch").tag("result", "hit")
+                .functionCounter().count();
+    }
+
+    private Long getFirstItemId() {
+        return em.createQuery("Select i from Item i where i.name = :name", Item.class)
+                .setParameter("name", "FirstItem")
+                .getSingleResult()
+                .getId();
+    }
+
+    private InputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
     private Long getOwnerId() {
         TypedQuery<User> query = em.createQuery("Select u from User u where u.name = :name and u.email = :email",
                 User.class);
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.other;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.errors.SameEmailException;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.UserMapperImpl;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserServiceImpl;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.sql.SQLException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserEmailConstraintTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private UserDto makeUserDto() {
+        UserDto dto = new UserDto();
+        dto.setName("User");
+        dto.setEmail("user@email.com");
+        return dto;
+    }
+
+    private DataIntegrityViolationException makeViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("violation", new SQLException(), constraintName));
+    }
+
+    @Test
+    public void checkConcurrentSameEmailViolation() {
+        UserServiceImpl userService = new UserServiceImpl(userRepository, new UserMapperImpl(), itemRepository, new EntityTags("test"));
+        when(userRepository.existsByEmail("user@email.com")).thenReturn(false);
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(makeViolation("PUBLIC.UNIQUE_USER_EMAIL_INDEX_4"));
+
+        Assertions.assertThrowsExactly(SameEmailException.class, () -> userService.addUser(makeUserDto()));
+    }
+
+    @Test
+    public void checkOtherViolation() {
+        UserServiceImpl userService = new UserServiceImpl(userRepository, new UserMapperImpl(), itemRepository, new EntityTags("test"));
+        when(userRepository.existsByEmail("user@email.com")).thenReturn(false);
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(makeViolation("users_pkey"));
+
+        Assertions.assertThrowsExactly(DataIntegrityViolationException.class, () -> userService.addUser(makeUserDto()));
+    }
+
+}